@@ -0,0 +1,116 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CompactItemRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemRepositoryImpl;
+import ru.practicum.shareit.item.repository.OffHeapItemRepository;
+import ru.practicum.shareit.storage.MappedSegments;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepositoryImpl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Deterministic users and items for the benchmarks: one owner per {@value #ITEMS_PER_OWNER} items,
+ * names and descriptions drawn from a small vocabulary so that common terms match a fixed share of the catalogue.
+ */
+final class CatalogueFixture {
+    static final int ITEMS_PER_OWNER = 100;
+    static final String[] WORDS = {
+        "drill", "saw", "hammer", "ladder", "tent", "bicycle", "camera", "projector", "kayak", "дрель",
+        "пила", "молоток", "лестница", "палатка", "велосипед", "фотоаппарат"
+    };
+
+    private CatalogueFixture() {
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User(null, "User " + i, "user" + i + "@mail.ru"));
+        }
+        return users;
+    }
+
+    static UserRepositoryImpl userRepository(int size) {
+        UserRepositoryImpl userRepository = new UserRepositoryImpl();
+        users(size).forEach(userRepository::create);
+        return userRepository;
+    }
+
+    static Item item(int number, User owner) {
+        return Item.builder()
+                .name(WORDS[number % WORDS.length] + " " + number)
+                .description("Well kept " + WORDS[(number * 7 + 3) % WORDS.length] + " for rent")
+                .available(number % 10 != 0)
+                .owner(owner)
+                .build();
+    }
+
+    static ItemRepositoryImpl itemRepository(int size) {
+        return fill(new ItemRepositoryImpl(), owners(size), size);
+    }
+
+    static CompactItemRepository compactItemRepository(int size) {
+        List<User> owners = owners(size);
+        return fill(new CompactItemRepository(lookup(owners)), owners, size);
+    }
+
+    static OffHeapItemRepository offHeapItemRepository(int size) {
+        List<User> owners = owners(size);
+        return fill(new OffHeapItemRepository(lookup(owners), segments()), owners, size);
+    }
+
+    /**
+     * The catalogue in the given {@code shareit.item-layout}: {@code objects}, {@code compact} or {@code off-heap}.
+     */
+    static ItemRepository itemRepository(String layout, int size) {
+        return switch (layout) {
+            case "compact" -> compactItemRepository(size);
+            case "off-heap" -> offHeapItemRepository(size);
+            default -> itemRepository(size);
+        };
+    }
+
+    /**
+     * Segments in the system temporary directory, removed when the benchmark JVM exits.
+     */
+    static MappedSegments segments() {
+        try {
+            MappedSegments segments = new MappedSegments(null, 64 << 20);
+            Runtime.getRuntime().addShutdownHook(new Thread(segments::close));
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static <T extends ItemRepository> T fill(T itemRepository, List<User> owners, int size) {
+        for (int i = 0; i < size; i++) {
+            itemRepository.create(item(i, owners.get(i / ITEMS_PER_OWNER)));
+        }
+        return itemRepository;
+    }
+
+    static Function<Long, User> lookup(List<User> users) {
+        Map<Long, User> byId = new HashMap<>();
+        users.forEach(user -> byId.put(user.getId(), user));
+        return byId::get;
+    }
+
+    static List<User> owners(int catalogueSize) {
+        int count = Math.max(1, (catalogueSize + ITEMS_PER_OWNER - 1) / ITEMS_PER_OWNER);
+        List<User> owners = users(count);
+        for (int i = 0; i < count; i++) {
+            owners.get(i).setId(i + 1L);
+        }
+        return owners;
+    }
+}
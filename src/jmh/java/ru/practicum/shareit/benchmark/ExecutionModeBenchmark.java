@@ -0,0 +1,86 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepositoryImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request throughput of the platform worker pool (Tomcat's default of 200 threads) against a thread per request on
+ * virtual threads. A simulated request does an owner lookup and a search, then blocks for {@code ioMillis} the way
+ * a database round trip would. One operation is a burst of {@code concurrency} requests; requests per second are
+ * the score multiplied by {@code concurrency}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExecutionModeBenchmark {
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    @Param({"1000", "10000"})
+    int concurrency;
+
+    @Param({"10"})
+    int ioMillis;
+
+    private ExecutorService executor;
+    private ItemRepositoryImpl itemRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+        itemRepository = CatalogueFixture.itemRepository(10_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Integer>> requests = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long ownerId = i % 100 + 1L;
+            requests.add(executor.submit(() -> request(ownerId)));
+        }
+
+        int found = 0;
+        for (Future<Integer> request : requests) {
+            found += request.get();
+        }
+        return found;
+    }
+
+    private int request(long ownerId) throws InterruptedException {
+        List<Item> items = itemRepository.findAllByOwnerId(ownerId);
+        Thread.sleep(ioMillis);
+        return items.size() + itemRepository.searchItems("drill", 0, 20).size();
+    }
+}
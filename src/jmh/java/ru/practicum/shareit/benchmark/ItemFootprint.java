@@ -0,0 +1,47 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jol.info.GraphLayout;
+import ru.practicum.shareit.item.repository.CompactItemRepository;
+import ru.practicum.shareit.item.repository.ItemRepositoryImpl;
+import ru.practicum.shareit.item.repository.OffHeapItemRepository;
+import ru.practicum.shareit.storage.MappedSegments;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Prints the retained heap per item of the item storage layouts, owners excluded, search indexes included,
+ * and the memory mapped by the off-heap one:
+ * <pre>
+ *     mvn -P benchmark test-compile exec:exec -Dbenchmark.main=ru.practicum.shareit.benchmark.ItemFootprint \
+ *         -Djmh.args=1000000
+ * </pre>
+ */
+public final class ItemFootprint {
+    private ItemFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<User> owners = CatalogueFixture.owners(size);
+        ItemRepositoryImpl objects = CatalogueFixture.fill(new ItemRepositoryImpl(), owners, size);
+        print("objects", size, GraphLayout.parseInstance(objects)
+                .subtract(GraphLayout.parseInstance(owners.toArray())));
+
+        Function<Long, User> lookup = CatalogueFixture.lookup(owners);
+        CompactItemRepository compact = CatalogueFixture.fill(new CompactItemRepository(lookup), owners, size);
+        print("compact", size, GraphLayout.parseInstance(compact).subtract(GraphLayout.parseInstance(lookup)));
+
+        MappedSegments segments = CatalogueFixture.segments();
+        OffHeapItemRepository offHeap = new OffHeapItemRepository(lookup, segments);
+        CatalogueFixture.fill(offHeap, owners, size);
+        print("off-heap", size, GraphLayout.parseInstance(offHeap).subtract(GraphLayout.parseInstance(lookup)));
+        System.out.printf("%-8s %,d items: %,d bytes mapped%n", "off-heap", size, segments.mappedBytes());
+    }
+
+    private static void print(String layout, int size, GraphLayout layoutGraph) {
+        long total = layoutGraph.totalSize();
+        System.out.printf("%-8s %,d items: %,d bytes, %,d bytes per item%n", layout, size, total, total / size);
+    }
+}
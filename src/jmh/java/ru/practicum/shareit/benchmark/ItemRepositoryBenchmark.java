@@ -0,0 +1,105 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class ItemRepositoryBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    int catalogueSize;
+
+    @Param({"objects", "compact", "off-heap"})
+    String layout;
+
+    ItemRepository itemRepository;
+    Long ownerId;
+    String rareTerm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        itemRepository = CatalogueFixture.itemRepository(layout, catalogueSize);
+        ownerId = CatalogueFixture.owners(catalogueSize).size() / 2 + 1L;
+        rareTerm = CatalogueFixture.WORDS[0] + " " + catalogueSize / 2;
+    }
+
+    @Benchmark
+    public List<Item> searchCommonTerm() {
+        return itemRepository.searchItems("drill");
+    }
+
+    @Benchmark
+    public List<Item> searchCommonTermFirstPage() {
+        return itemRepository.searchItems("drill", 0, 20);
+    }
+
+    @Benchmark
+    public List<Item> searchRareTerm() {
+        return itemRepository.searchItems(rareTerm);
+    }
+
+    @Benchmark
+    public Optional<Item> findById(ReadState state) {
+        return itemRepository.findById(state.nextId());
+    }
+
+    @Benchmark
+    public List<Item> findAllByOwnerId() {
+        return itemRepository.findAllByOwnerId(ownerId);
+    }
+
+    @Benchmark
+    public Item create(WriteState state) {
+        return itemRepository.create(CatalogueFixture.item(state.next++, state.owner));
+    }
+
+    @State(Scope.Thread)
+    public static class ReadState {
+        int size;
+        long next;
+
+        @Setup(Level.Iteration)
+        public void setUp(ItemRepositoryBenchmark benchmark) {
+            size = benchmark.catalogueSize;
+        }
+
+        long nextId() {
+            next = next * 31 + 17;
+            return Math.floorMod(next, size) + 1;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class WriteState {
+        User owner;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(ItemRepositoryBenchmark benchmark) {
+            owner = new User(Long.MAX_VALUE, "Writer", "writer@mail.ru");
+            next = benchmark.catalogueSize;
+            benchmark.itemRepository.deleteAllByOwnerId(owner.getId());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemMapperImpl;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.dto.UserMapperImpl;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping one page of entities to response DTOs; reported per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"1", "100", "1000"})
+    int pageSize;
+
+    private final ItemMapper itemMapper = new ItemMapperImpl();
+    private final UserMapper userMapper = new UserMapperImpl();
+    private List<Item> items;
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> owners = CatalogueFixture.owners(pageSize);
+        items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Item item = CatalogueFixture.item(i, owners.get(i / CatalogueFixture.ITEMS_PER_OWNER));
+            item.setId(i + 1L);
+            items.add(item);
+        }
+        users = CatalogueFixture.users(pageSize);
+    }
+
+    @Benchmark
+    public void itemToItemDto(Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(itemMapper.toItemDto(item));
+        }
+    }
+
+    @Benchmark
+    public void userToUserDto(Blackhole blackhole) {
+        for (User user : users) {
+            blackhole.consume(userMapper.toUserDto(user));
+        }
+    }
+}
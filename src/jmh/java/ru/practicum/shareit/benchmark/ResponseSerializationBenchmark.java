@@ -0,0 +1,77 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemJsonWriter;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemMapperImpl;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserJsonWriter;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing one page of items as a JSON response: mapped to DTOs and serialized by Jackson, as responses were
+ * written before, against {@link ItemJsonWriter}. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+    @Param({"1", "100", "1000"})
+    int pageSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ItemMapper itemMapper = new ItemMapperImpl();
+    private final ItemJsonWriter itemJsonWriter = new ItemJsonWriter(new UserJsonWriter());
+    private final OutputStream response = OutputStream.nullOutputStream();
+    private List<Item> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<User> owners = CatalogueFixture.owners(pageSize);
+        items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Item item = CatalogueFixture.item(i, owners.get(i / CatalogueFixture.ITEMS_PER_OWNER));
+            item.setId(i + 1L);
+            items.add(item);
+        }
+    }
+
+    @Benchmark
+    public void mappedDtos() throws IOException {
+        List<ItemResponseDto> dtos = items.stream().map(itemMapper::toItemDto).toList();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response, JsonEncoding.UTF8)) {
+            objectMapper.writeValue(generator, dtos);
+        }
+    }
+
+    @Benchmark
+    public void jsonWriter() throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response, JsonEncoding.UTF8)) {
+            itemJsonWriter.list(items).writeTo(generator);
+        }
+    }
+}
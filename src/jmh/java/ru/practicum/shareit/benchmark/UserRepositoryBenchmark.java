@@ -0,0 +1,58 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepositoryImpl;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class UserRepositoryBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    int catalogueSize;
+
+    UserRepositoryImpl userRepository;
+    String takenEmail;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        userRepository = CatalogueFixture.userRepository(catalogueSize);
+        takenEmail = "USER" + catalogueSize / 2 + "@mail.ru";
+    }
+
+    @Benchmark
+    public boolean validateTakenEmail() {
+        return userRepository.validateEmail(0L, takenEmail);
+    }
+
+    @Benchmark
+    public boolean validateFreeEmail() {
+        return userRepository.validateEmail(0L, "free@mail.ru");
+    }
+
+    @Benchmark
+    public User create(WriteState state) {
+        return userRepository.create(new User(null, "New user", "new" + state.next++ + "@mail.ru"));
+    }
+
+    @State(Scope.Thread)
+    public static class WriteState {
+        long next;
+    }
+}
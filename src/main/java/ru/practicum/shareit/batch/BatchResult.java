@@ -0,0 +1,64 @@
+package ru.practicum.shareit.batch;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch request: one entry per element, in request order.
+ * {@code errors} and {@code results} passed to the factories are aligned with the request,
+ * a {@code null} error marking a valid element.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BatchResult<T> {
+    public static final int MAX_SIZE = 1000;
+
+    boolean applied;
+    List<Entry<T>> results;
+
+    /**
+     * Nothing was applied: invalid elements report their errors, valid ones are skipped.
+     */
+    public static <T> BatchResult<T> rejected(List<String> errors) {
+        List<Entry<T>> entries = new ArrayList<>(errors.size());
+        for (int i = 0; i < errors.size(); i++) {
+            String error = errors.get(i);
+            entries.add(new Entry<>(i, error == null ? Status.SKIPPED : Status.FAILED, null, error));
+        }
+        return new BatchResult<>(false, entries);
+    }
+
+    public static <T> BatchResult<T> applied(List<String> errors, List<T> results, Status status) {
+        List<Entry<T>> entries = new ArrayList<>(errors.size());
+        for (int i = 0; i < errors.size(); i++) {
+            String error = errors.get(i);
+            entries.add(error == null
+                    ? new Entry<>(i, status, results.get(i), null)
+                    : new Entry<>(i, Status.FAILED, null, error));
+        }
+        return new BatchResult<>(true, entries);
+    }
+
+    public enum Status {
+        CREATED, UPDATED, FAILED, SKIPPED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Entry<T> {
+        int index;
+        Status status;
+        T result;
+        String error;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.batch;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bean validation of single batch elements, so that one invalid element is reported instead of failing the request.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchValidator {
+    private final Validator validator;
+
+    /**
+     * Returns the constraint violations of {@code element} as one message, or {@code null} if it is valid.
+     */
+    public String validate(Object element, Class<?>... groups) {
+        if (element == null) {
+            return "element must not be null";
+        }
+
+        Set<ConstraintViolation<Object>> violations = validator.validate(element, groups);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
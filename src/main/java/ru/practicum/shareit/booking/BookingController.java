@@ -1,12 +1,70 @@
 package ru.practicum.shareit.booking;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.validation.Create;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-bookings.
- */
 @RestController
+@RequiredArgsConstructor
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private final BookingService bookingService;
+
+    @PostMapping
+    public ResponseEntity<BookingResponseDto> createBooking(@RequestHeader(USER_ID_HEADER) Long bookerId,
+                                                            @Validated({Create.class}) @RequestBody
+                                                            BookingDto bookingDto) {
+        return new ResponseEntity<>(bookingService.create(bookerId, bookingDto), HttpStatus.CREATED);
+    }
+
+    @PatchMapping("/{bookingId}")
+    public ResponseEntity<BookingResponseDto> approveBooking(@RequestHeader(USER_ID_HEADER) Long ownerId,
+                                                             @PathVariable Long bookingId,
+                                                             @RequestParam boolean approved) {
+        return ResponseEntity.ok(bookingService.approve(ownerId, bookingId, approved));
+    }
+
+    @PatchMapping("/{bookingId}/cancel")
+    public ResponseEntity<BookingResponseDto> cancelBooking(@RequestHeader(USER_ID_HEADER) Long bookerId,
+                                                            @PathVariable Long bookingId) {
+        return ResponseEntity.ok(bookingService.cancel(bookerId, bookingId));
+    }
+
+    @GetMapping("/{bookingId}")
+    public ResponseEntity<BookingResponseDto> getById(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                      @PathVariable Long bookingId) {
+        return ResponseEntity.ok(bookingService.findById(userId, bookingId));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<BookingResponseDto>> getAllByBooker(@RequestHeader(USER_ID_HEADER) Long bookerId,
+                                                                   @RequestParam(defaultValue = "ALL")
+                                                                   BookingState state) {
+        return ResponseEntity.ok(bookingService.findAllByBooker(bookerId, state));
+    }
+
+    @GetMapping("/owner")
+    public ResponseEntity<List<BookingResponseDto>> getAllByOwner(@RequestHeader(USER_ID_HEADER) Long ownerId,
+                                                                  @RequestParam(defaultValue = "ALL")
+                                                                  BookingState state) {
+        return ResponseEntity.ok(bookingService.findAllByOwner(ownerId, state));
+    }
 }
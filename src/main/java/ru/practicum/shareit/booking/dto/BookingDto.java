@@ -1,10 +1,14 @@
 package ru.practicum.shareit.booking.dto;
 
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.validation.Create;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +18,15 @@ import java.time.LocalDateTime;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class BookingDto {
     Long id;
+
+    @NotNull(groups = {Create.class})
+    @FutureOrPresent(groups = {Create.class})
     LocalDateTime start;
+
+    @NotNull(groups = {Create.class})
+    @Future(groups = {Create.class})
     LocalDateTime end;
+
+    @NotNull(groups = {Create.class})
     Long itemId;
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.dto;
+
+import org.mapstruct.Mapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.user.dto.UserMapper;
+
+@Mapper(componentModel = "spring", uses = {ItemMapper.class, UserMapper.class})
+public interface BookingMapper {
+    BookingResponseDto toBookingResponseDto(Booking booking);
+}
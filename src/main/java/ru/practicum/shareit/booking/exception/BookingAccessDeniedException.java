@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class BookingAccessDeniedException extends RuntimeException {
+    public BookingAccessDeniedException(final Long userId, final Long bookingId) {
+        super("User with id = %d has no access to booking with id = %d".formatted(userId, bookingId));
+    }
+}
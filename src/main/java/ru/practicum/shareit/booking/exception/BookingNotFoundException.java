@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class BookingNotFoundException extends RuntimeException {
+    public BookingNotFoundException(final Long bookingId) {
+        super("Booking with id = %d not found".formatted(bookingId));
+    }
+}
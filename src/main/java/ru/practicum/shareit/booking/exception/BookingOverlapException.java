@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookingOverlapException extends RuntimeException {
+    public BookingOverlapException(final Long itemId) {
+        super("Item with id = %d is already booked for this period".formatted(itemId));
+    }
+}
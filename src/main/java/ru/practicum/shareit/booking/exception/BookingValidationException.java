@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BookingValidationException extends RuntimeException {
+    public BookingValidationException(String message) {
+        super(message);
+    }
+}
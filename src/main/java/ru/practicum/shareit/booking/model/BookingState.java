@@ -0,0 +1,5 @@
+package ru.practicum.shareit.booking.model;
+
+public enum BookingState {
+    ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.request.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingJpaRepository extends JpaRepository<Booking, Long> {
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findWithRelationsById(Long id);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    List<Booking> findAllByItemOwnerIdOrderByStartDesc(Long ownerId);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(Long itemId, Status status,
+                                                                              LocalDateTime now);
+
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findFirstByItemIdAndStatusAndStartGreaterThanEqualOrderByStartAsc(Long itemId, Status status,
+                                                                                       LocalDateTime now);
+
+    @Query("select count(b) > 0 from Booking b where b.item.id = :itemId and b.status in :statuses " +
+            "and b.start < :end and b.end > :start")
+    boolean existsOverlapping(@Param("itemId") Long itemId, @Param("statuses") Collection<Status> statuses,
+                              @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Modifying
+    @Query("delete from Booking b where b.item.id = :itemId")
+    void deleteAllByItemId(@Param("itemId") Long itemId);
+
+    @Modifying
+    @Query("delete from Booking b where b.booker.id = :userId " +
+            "or b.item.id in (select i.id from Item i where i.owner.id = :userId)")
+    void deleteAllByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.request.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingRepository {
+    /**
+     * Stores the booking if its item is free for the whole period, atomically with the check.
+     */
+    Booking create(Booking booking);
+
+    /**
+     * Moves the booking to {@code status} if the current status allows it, atomically with the check.
+     */
+    Booking changeStatus(Long bookingId, Status status);
+
+    Optional<Booking> findById(Long id);
+
+    List<Booking> findAllByBookerId(Long bookerId);
+
+    List<Booking> findAllByOwnerId(Long ownerId);
+
+    boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    Optional<Booking> findLastBooking(Long itemId, LocalDateTime now);
+
+    Optional<Booking> findNextBooking(Long itemId, LocalDateTime now);
+
+    void deleteAllByItemId(Long itemId);
+
+    /**
+     * Deletes the bookings made by the user and the bookings of the items the user owns.
+     */
+    void deleteAllByUserId(Long userId);
+}
@@ -0,0 +1,228 @@
+package ru.practicum.shareit.booking.repository;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingValidationException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.request.model.Status;
+import ru.practicum.shareit.storage.AtomicIdGenerator;
+import ru.practicum.shareit.storage.IdGenerator;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+@Repository
+@ConditionalOnProperty(name = "shareit.storage", havingValue = "memory", matchIfMissing = true)
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class BookingRepositoryImpl implements BookingRepository, MeterBinder {
+    private static final Comparator<Booking> NEWEST_FIRST = Comparator.comparing(Booking::getStart).reversed();
+
+    private final Map<Long, Booking> storage = new ConcurrentHashMap<>();
+    private final Map<Long, ItemBookingSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<Long>> bookerIndex = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<Long>> ownerIndex = new ConcurrentHashMap<>();
+    private final Map<Long, NavigableSet<Long>> itemIndex = new ConcurrentHashMap<>();
+    private final IdGenerator idGenerator;
+
+    public BookingRepositoryImpl() {
+        this(new AtomicIdGenerator());
+    }
+
+    public BookingRepositoryImpl(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public Booking create(Booking booking) {
+        ItemBookingSchedule schedule = schedules.computeIfAbsent(booking.getItem().getId(),
+                itemId -> new ItemBookingSchedule());
+        Lock lock = schedule.lock();
+        lock.lock();
+        try {
+            schedule.reserve(booking);
+            booking.setId(idGenerator.nextId());
+            storage.put(booking.getId(), booking);
+            if (booking.getStatus() == Status.APPROVED) {
+                schedule.approve(booking);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        addToIndex(bookerIndex, booking.getBooker().getId(), booking.getId());
+        addToIndex(ownerIndex, booking.getItem().getOwner().getId(), booking.getId());
+        addToIndex(itemIndex, booking.getItem().getId(), booking.getId());
+        return booking;
+    }
+
+    @Override
+    public Booking changeStatus(Long bookingId, Status status) {
+        Booking booking = findById(bookingId).orElseThrow(() -> new BookingNotFoundException(bookingId));
+        ItemBookingSchedule schedule = schedules.get(booking.getItem().getId());
+        if (schedule == null) {
+            throw new BookingNotFoundException(bookingId);
+        }
+        Lock lock = schedule.lock();
+        lock.lock();
+        try {
+            Booking current = findById(bookingId).orElseThrow(() -> new BookingNotFoundException(bookingId));
+            if (!current.getStatus().canChangeTo(status)) {
+                throw new BookingValidationException("Booking with id = %d cannot change status from %s to %s"
+                        .formatted(bookingId, current.getStatus(), status));
+            }
+
+            // Readers hold on to the stored instance, so the new status goes into a copy
+            Booking updated = current.toBuilder().status(status).build();
+            schedule.replace(current, updated);
+            storage.put(bookingId, updated);
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Booking> findById(Long id) {
+        return Optional.ofNullable(storage.get(id));
+    }
+
+    @Override
+    public List<Booking> findAllByBookerId(Long bookerId) {
+        return findAllByIndex(bookerIndex, bookerId);
+    }
+
+    @Override
+    public List<Booking> findAllByOwnerId(Long ownerId) {
+        return findAllByIndex(ownerIndex, ownerId);
+    }
+
+    @Override
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemBookingSchedule schedule = schedules.get(itemId);
+        return schedule == null || schedule.isFree(start, end);
+    }
+
+    @Override
+    public Optional<Booking> findLastBooking(Long itemId, LocalDateTime now) {
+        ItemBookingSchedule schedule = schedules.get(itemId);
+        return schedule == null ? Optional.empty() : schedule.last(now);
+    }
+
+    @Override
+    public Optional<Booking> findNextBooking(Long itemId, LocalDateTime now) {
+        ItemBookingSchedule schedule = schedules.get(itemId);
+        return schedule == null ? Optional.empty() : schedule.next(now);
+    }
+
+    @Override
+    public void deleteAllByItemId(Long itemId) {
+        NavigableSet<Long> ids = itemIndex.remove(itemId);
+        if (ids != null) {
+            ids.forEach(this::delete);
+        }
+        schedules.remove(itemId);
+    }
+
+    @Override
+    public void deleteAllByUserId(Long userId) {
+        NavigableSet<Long> owned = ownerIndex.remove(userId);
+        if (owned != null) {
+            owned.stream()
+                    .map(storage::get)
+                    .filter(Objects::nonNull)
+                    .map(booking -> booking.getItem().getId())
+                    .distinct()
+                    .forEach(this::deleteAllByItemId);
+        }
+        NavigableSet<Long> booked = bookerIndex.remove(userId);
+        if (booked != null) {
+            booked.forEach(this::delete);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(MetricNames.STORAGE_SIZE, storage, Map::size)
+                .tag("storage", "bookings")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, schedules, Map::size)
+                .tag("index", "bookings.schedule")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, bookerIndex, Map::size)
+                .tag("index", "bookings.booker")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, ownerIndex, Map::size)
+                .tag("index", "bookings.owner")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, itemIndex, Map::size)
+                .tag("index", "bookings.item")
+                .register(registry);
+    }
+
+    private void delete(Long bookingId) {
+        Booking booking = storage.get(bookingId);
+        if (booking == null) {
+            return;
+        }
+
+        ItemBookingSchedule schedule = schedules.get(booking.getItem().getId());
+        if (schedule == null) {
+            booking = storage.remove(bookingId);
+        } else {
+            Lock lock = schedule.lock();
+            lock.lock();
+            try {
+                booking = storage.remove(bookingId);
+                if (booking != null) {
+                    schedule.release(booking);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (booking != null) {
+            removeFromIndex(bookerIndex, booking.getBooker().getId(), bookingId);
+            removeFromIndex(ownerIndex, booking.getItem().getOwner().getId(), bookingId);
+            removeFromIndex(itemIndex, booking.getItem().getId(), bookingId);
+        }
+    }
+
+    private List<Booking> findAllByIndex(Map<Long, NavigableSet<Long>> index, Long key) {
+        return index.getOrDefault(key, Collections.emptyNavigableSet()).stream()
+                .map(storage::get)
+                .filter(Objects::nonNull)
+                .sorted(NEWEST_FIRST)
+                .collect(Collectors.toList());
+    }
+
+    private static void addToIndex(Map<Long, NavigableSet<Long>> index, Long key, Long bookingId) {
+        index.compute(key, (k, ids) -> {
+            NavigableSet<Long> result = ids == null ? new ConcurrentSkipListSet<>() : ids;
+            result.add(bookingId);
+            return result;
+        });
+    }
+
+    private static void removeFromIndex(Map<Long, NavigableSet<Long>> index, Long key, Long bookingId) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(bookingId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
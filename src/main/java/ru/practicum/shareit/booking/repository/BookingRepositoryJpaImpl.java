@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking.repository;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.exception.BookingValidationException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.item.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@ConditionalOnProperty(name = "shareit.storage", havingValue = "jpa")
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class BookingRepositoryJpaImpl implements BookingRepository {
+    private static final List<Status> ACTIVE = Arrays.stream(Status.values()).filter(Status::isActive).toList();
+
+    private final BookingJpaRepository bookingJpaRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Booking create(Booking booking) {
+        // The item row lock serializes bookings of one item, so the overlap check holds until the insert commits
+        Long itemId = booking.getItem().getId();
+        if (entityManager.find(Item.class, itemId, LockModeType.PESSIMISTIC_WRITE) == null) {
+            throw new ItemNotFoundException(itemId);
+        }
+        if (bookingJpaRepository.existsOverlapping(itemId, ACTIVE, booking.getStart(), booking.getEnd())) {
+            throw new BookingOverlapException(itemId);
+        }
+        return bookingJpaRepository.save(booking);
+    }
+
+    @Override
+    @Transactional
+    public Booking changeStatus(Long bookingId, Status status) {
+        Booking booking = entityManager.find(Booking.class, bookingId, LockModeType.PESSIMISTIC_WRITE);
+        if (booking == null) {
+            throw new BookingNotFoundException(bookingId);
+        }
+        if (!booking.getStatus().canChangeTo(status)) {
+            throw new BookingValidationException("Booking with id = %d cannot change status from %s to %s"
+                    .formatted(bookingId, booking.getStatus(), status));
+        }
+
+        booking.setStatus(status);
+        Hibernate.initialize(booking.getItem());
+        Hibernate.initialize(booking.getItem().getOwner());
+        Hibernate.initialize(booking.getBooker());
+        return booking;
+    }
+
+    @Override
+    public Optional<Booking> findById(Long id) {
+        return bookingJpaRepository.findWithRelationsById(id);
+    }
+
+    @Override
+    public List<Booking> findAllByBookerId(Long bookerId) {
+        return bookingJpaRepository.findAllByBookerIdOrderByStartDesc(bookerId);
+    }
+
+    @Override
+    public List<Booking> findAllByOwnerId(Long ownerId) {
+        return bookingJpaRepository.findAllByItemOwnerIdOrderByStartDesc(ownerId);
+    }
+
+    @Override
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return !bookingJpaRepository.existsOverlapping(itemId, ACTIVE, start, end);
+    }
+
+    @Override
+    public Optional<Booking> findLastBooking(Long itemId, LocalDateTime now) {
+        return bookingJpaRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(
+                itemId, Status.APPROVED, now);
+    }
+
+    @Override
+    public Optional<Booking> findNextBooking(Long itemId, LocalDateTime now) {
+        return bookingJpaRepository.findFirstByItemIdAndStatusAndStartGreaterThanEqualOrderByStartAsc(
+                itemId, Status.APPROVED, now);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByItemId(Long itemId) {
+        bookingJpaRepository.deleteAllByItemId(itemId);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByUserId(Long userId) {
+        bookingJpaRepository.deleteAllByUserId(userId);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.request.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sorted interval index of one item's bookings.
+ * Bookings holding a slot (waiting or approved) never overlap, so keyed by start they are also sorted by end,
+ * and the only candidate for a conflict with [start, end) is the last booking starting before {@code end}.
+ * Reads are lock-free; changes go through {@link #lock()}.
+ */
+class ItemBookingSchedule {
+    private final Lock lock = new ReentrantLock();
+    private final NavigableMap<LocalDateTime, Booking> active = new ConcurrentSkipListMap<>();
+    private final NavigableMap<LocalDateTime, Booking> approved = new ConcurrentSkipListMap<>();
+
+    Lock lock() {
+        return lock;
+    }
+
+    boolean isFree(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, Booking> previous = active.lowerEntry(end);
+        return previous == null || !previous.getValue().getEnd().isAfter(start);
+    }
+
+    void reserve(Booking booking) {
+        if (!isFree(booking.getStart(), booking.getEnd())) {
+            throw new BookingOverlapException(booking.getItem().getId());
+        }
+        active.put(booking.getStart(), booking);
+    }
+
+    void approve(Booking booking) {
+        approved.put(booking.getStart(), booking);
+    }
+
+    /**
+     * Puts {@code updated} in place of {@code current}, the same booking with another status.
+     */
+    void replace(Booking current, Booking updated) {
+        if (updated.getStatus().isActive()) {
+            active.replace(current.getStart(), current, updated);
+        } else {
+            active.remove(current.getStart(), current);
+        }
+        if (updated.getStatus() == Status.APPROVED) {
+            approved.put(updated.getStart(), updated);
+        } else {
+            approved.remove(current.getStart(), current);
+        }
+    }
+
+    void release(Booking booking) {
+        active.remove(booking.getStart(), booking);
+        approved.remove(booking.getStart(), booking);
+    }
+
+    Optional<Booking> last(LocalDateTime now) {
+        return Optional.ofNullable(approved.lowerEntry(now)).map(Map.Entry::getValue);
+    }
+
+    Optional<Booking> next(LocalDateTime now) {
+        return Optional.ofNullable(approved.ceilingEntry(now)).map(Map.Entry::getValue);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.util.List;
+
+public interface BookingService {
+    BookingResponseDto create(Long bookerId, BookingDto bookingDto);
+
+    BookingResponseDto approve(Long ownerId, Long bookingId, boolean approved);
+
+    BookingResponseDto cancel(Long bookerId, Long bookingId);
+
+    BookingResponseDto findById(Long userId, Long bookingId);
+
+    List<BookingResponseDto> findAllByBooker(Long bookerId, BookingState state);
+
+    List<BookingResponseDto> findAllByOwner(Long ownerId, BookingState state);
+}
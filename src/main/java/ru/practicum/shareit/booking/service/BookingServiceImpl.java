@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.exception.BookingAccessDeniedException;
+import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingValidationException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.Status;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Timed(MetricNames.SERVICE_TIMER)
+public class BookingServiceImpl implements BookingService {
+    private final BookingRepository bookingRepository;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingMapper bookingMapper;
+
+    @Override
+    public BookingResponseDto create(Long bookerId, BookingDto bookingDto) {
+        User booker = userService.userExists(bookerId);
+        Item item = itemService.itemExists(bookingDto.getItemId());
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            throw new BookingValidationException("Item with id = %d is not available".formatted(item.getId()));
+        }
+        if (!bookingDto.getEnd().isAfter(bookingDto.getStart())) {
+            throw new BookingValidationException("Booking end must be after its start");
+        }
+        if (Objects.equals(item.getOwner().getId(), bookerId)) {
+            throw new BookingValidationException("Owner cannot book their own item");
+        }
+
+        Booking booking = Booking.builder()
+                .start(bookingDto.getStart())
+                .end(bookingDto.getEnd())
+                .item(item)
+                .booker(booker)
+                .status(Status.WAITING)
+                .build();
+        return bookingMapper.toBookingResponseDto(bookingRepository.create(booking));
+    }
+
+    @Override
+    public BookingResponseDto approve(Long ownerId, Long bookingId, boolean approved) {
+        Booking booking = bookingExists(bookingId);
+        if (!Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
+            throw new BookingAccessDeniedException(ownerId, bookingId);
+        }
+
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        return bookingMapper.toBookingResponseDto(bookingRepository.changeStatus(bookingId, status));
+    }
+
+    @Override
+    public BookingResponseDto cancel(Long bookerId, Long bookingId) {
+        Booking booking = bookingExists(bookingId);
+        if (!Objects.equals(booking.getBooker().getId(), bookerId)) {
+            throw new BookingAccessDeniedException(bookerId, bookingId);
+        }
+
+        return bookingMapper.toBookingResponseDto(bookingRepository.changeStatus(bookingId, Status.CANCELED));
+    }
+
+    @Override
+    public BookingResponseDto findById(Long userId, Long bookingId) {
+        Booking booking = bookingExists(bookingId);
+        if (!Objects.equals(booking.getBooker().getId(), userId)
+                && !Objects.equals(booking.getItem().getOwner().getId(), userId)) {
+            throw new BookingAccessDeniedException(userId, bookingId);
+        }
+        return bookingMapper.toBookingResponseDto(booking);
+    }
+
+    @Override
+    public List<BookingResponseDto> findAllByBooker(Long bookerId, BookingState state) {
+        userService.userExists(bookerId);
+        return filter(bookingRepository.findAllByBookerId(bookerId), state);
+    }
+
+    @Override
+    public List<BookingResponseDto> findAllByOwner(Long ownerId, BookingState state) {
+        userService.userExists(ownerId);
+        return filter(bookingRepository.findAllByOwnerId(ownerId), state);
+    }
+
+    private Booking bookingExists(Long bookingId) {
+        return bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(bookingId));
+    }
+
+    private List<BookingResponseDto> filter(List<Booking> bookings, BookingState state) {
+        return bookings.stream()
+                .filter(matches(state, LocalDateTime.now()))
+                .map(bookingMapper::toBookingResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    private static Predicate<Booking> matches(BookingState state, LocalDateTime now) {
+        return switch (state) {
+            case ALL -> booking -> true;
+            case CURRENT -> booking -> !booking.getStart().isAfter(now) && booking.getEnd().isAfter(now);
+            case PAST -> booking -> !booking.getEnd().isAfter(now);
+            case FUTURE -> booking -> booking.getStart().isAfter(now);
+            case WAITING -> booking -> booking.getStatus() == Status.WAITING;
+            case REJECTED -> booking -> booking.getStatus() == Status.REJECTED;
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through caches in front of {@code findById} of the user and item repositories in {@code jpa} storage;
+ * the in-memory repositories answer from their maps at least as fast as a cache would. A missing id is cached
+ * as absent until it is created. Misses are not loaded with {@code sync}: Caffeine would run the database read
+ * inside {@code ConcurrentHashMap.compute}, under a monitor that pins a virtual thread to its carrier.
+ * Writes evict the id instead of putting the written copy: a put racing a slower writer of the same id could leave
+ * the older version cached.
+ * Size, expiry and statistics are set by {@code spring.cache.caffeine.spec}; {@code spring.cache.type=none} turns
+ * caching off. Hit and miss counts are published as the {@code cache.gets} metric.
+ */
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(name = "shareit.storage", havingValue = "jpa")
+public class CacheConfig {
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.web.JsonBody;
+import ru.practicum.shareit.web.SingleFlight;
+import ru.practicum.shareit.web.Versioned;
+
+/**
+ * Single-flight reads of {@code GET /items/{itemId}}: a burst of requests for one item is answered from one
+ * repository read and one serialization, shared for {@code shareit.coalescing.ttl}.
+ */
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class CoalescingConfig {
+    public static final String ITEM_RESPONSES = "item-responses";
+
+    @Bean
+    public SingleFlight<Long, Versioned<JsonBody>> itemResponses(CoalescingProperties properties) {
+        return new SingleFlight<>(ITEM_RESPONSES, properties.getTtl(), properties.getMaximumSize());
+    }
+}
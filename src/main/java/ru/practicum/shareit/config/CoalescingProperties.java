@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Coalescing of concurrent reads of the same item, see {@link CoalescingConfig}.
+ */
+@Data
+@ConfigurationProperties("shareit.coalescing")
+public class CoalescingProperties {
+    /**
+     * How long a serialized item is reused after it was read. Changes made through the item service drop it
+     * at once, others, e.g. of the owner's name, show up after at most this long; zero turns coalescing off.
+     */
+    private Duration ttl = Duration.ofMillis(100);
+
+    /**
+     * Most items kept serialized at once.
+     */
+    private long maximumSize = 10_000;
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.request.repository.ItemRequestRepositoryImpl;
+import ru.practicum.shareit.storage.DurabilityManager;
+import ru.practicum.shareit.storage.DurableStore;
+import ru.practicum.shareit.user.repository.UserRepositoryImpl;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Write-ahead log and snapshots for the in-memory repositories ({@code shareit.durability.enabled=true}).
+ * Stores are restored before the application starts serving requests; reads never touch the disk.
+ */
+@Configuration
+@EnableConfigurationProperties(DurabilityProperties.class)
+@ConditionalOnProperty(name = "shareit.durability.enabled", havingValue = "true")
+public class DurabilityConfig {
+    @Bean(destroyMethod = "close")
+    public DurabilityManager durabilityManager(DurabilityProperties properties, List<DurableStore> stores,
+                                               ObjectProvider<ItemRequestRepositoryImpl> itemRequestRepository,
+                                               ObjectProvider<UserRepositoryImpl> userRepository) throws IOException {
+        userRepository.ifAvailable(users -> itemRequestRepository.ifAvailable(
+                requests -> requests.setRequestorLookup(users.directLookup())));
+
+        DurabilityManager manager = new DurabilityManager(properties.getDirectory(), stores);
+        manager.start(properties.getSnapshotInterval());
+        return manager;
+    }
+}
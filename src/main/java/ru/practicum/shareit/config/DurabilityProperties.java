@@ -0,0 +1,29 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Durability of the in-memory storage, see {@link DurabilityConfig}.
+ */
+@Data
+@ConfigurationProperties("shareit.durability")
+public class DurabilityProperties {
+    /**
+     * Whether changes of the in-memory repositories are logged and restored on startup.
+     */
+    private boolean enabled;
+
+    /**
+     * Directory of the write-ahead log segments and snapshots.
+     */
+    private Path directory = Path.of("data");
+
+    /**
+     * Pause between snapshots; each one lets the log segments written before it be deleted.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.config;
+
+/**
+ * Names of the application meters. Every public method of the services and repositories is timed by the
+ * {@code @Timed} aspect ({@code management.observations.annotations.enabled}), tagged with its class and method;
+ * percentiles and histogram buckets are set by {@code management.metrics.distribution.*}.
+ * In-memory storages publish their entry and index counts as gauges, the off-heap one also its mapped bytes.
+ * The time from JVM start to the first served request is published once that request completes.
+ */
+public final class MetricNames {
+    public static final String SERVICE_TIMER = "shareit.service";
+    public static final String REPOSITORY_TIMER = "shareit.repository";
+    public static final String STORAGE_SIZE = "shareit.storage.size";
+    public static final String OFF_HEAP_SIZE = "shareit.storage.off-heap";
+    public static final String INDEX_SIZE = "shareit.index.size";
+    public static final String FIRST_REQUEST_TIME = "shareit.startup.first.request";
+
+    private MetricNames() {
+    }
+}
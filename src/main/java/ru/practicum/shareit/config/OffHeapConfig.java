@@ -0,0 +1,23 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.storage.MappedSegments;
+
+import java.io.IOException;
+
+/**
+ * Off-heap item storage ({@code shareit.item-layout=off-heap}): item records live in memory-mapped segments
+ * outside the Java heap, only the ids and index keys stay on it.
+ */
+@Configuration
+@EnableConfigurationProperties(OffHeapProperties.class)
+@ConditionalOnExpression("'${shareit.storage:memory}' == 'memory' and '${shareit.item-layout:objects}' == 'off-heap'")
+public class OffHeapConfig {
+    @Bean(destroyMethod = "close")
+    public MappedSegments itemSegments(OffHeapProperties properties) throws IOException {
+        return new MappedSegments(properties.getDirectory(), Math.toIntExact(properties.getSegmentSize().toBytes()));
+    }
+}
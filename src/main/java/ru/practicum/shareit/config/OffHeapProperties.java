@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Memory-mapped segments of the off-heap item storage, see {@link OffHeapConfig}.
+ */
+@Data
+@ConfigurationProperties("shareit.off-heap")
+public class OffHeapProperties {
+    /**
+     * Directory in which a private directory of segment files is created; the system temporary directory if unset.
+     * The files only extend memory and are deleted on shutdown.
+     */
+    private Path directory;
+
+    /**
+     * Size of a segment; an item that does not fit gets a segment of its own.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+}
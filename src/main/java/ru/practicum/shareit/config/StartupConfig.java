@@ -0,0 +1,19 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.storage.DurabilityManager;
+import ru.practicum.shareit.storage.DurableStore;
+
+/**
+ * Fast start ({@code fast-start} profile): beans are created on first use ({@code spring.main.lazy-initialization}),
+ * except the in-memory stores and their restore, which must be done before the first request is served.
+ */
+@Configuration
+public class StartupConfig {
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStorage() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DurableStore.class, DurabilityManager.class);
+    }
+}
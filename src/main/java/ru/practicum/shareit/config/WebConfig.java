@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.web.JsonBodyHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * Serves {@link ru.practicum.shareit.web.JsonBody} responses, which the hot list and search endpoints return,
+ * ahead of the reflective Jackson converter.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new JsonBodyHttpMessageConverter(objectMapper));
+    }
+}
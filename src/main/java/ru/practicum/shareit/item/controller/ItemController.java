@@ -1,5 +1,9 @@
 package ru.practicum.shareit.item.controller;
 
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,10 +18,16 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.exception.UnsupportedPagingException;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.validation.Create;
+import ru.practicum.shareit.web.JsonBody;
+import ru.practicum.shareit.web.NdjsonWriter;
 
 import java.util.List;
 
@@ -26,7 +36,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String SORT_BY_ID = "id";
+    private static final String SORT_BY_RELEVANCE = "relevance";
     private final ItemService itemService;
+    private final NdjsonWriter ndjsonWriter;
 
     @PostMapping
     public ResponseEntity<ItemResponseDto> createItem(@Validated({Create.class})
@@ -35,6 +48,22 @@ public class ItemController {
         return new ResponseEntity<>(itemService.createItem(ownerId, itemDto), HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public BatchResult<ItemResponseDto> createItems(@RequestHeader(USER_ID_HEADER) Long ownerId,
+                                                    @RequestParam(defaultValue = "false") boolean atomic,
+                                                    @RequestBody @Size(max = BatchResult.MAX_SIZE)
+                                                    List<ItemDto> itemDtos) {
+        return itemService.createItems(ownerId, itemDtos, atomic);
+    }
+
+    @PatchMapping("/batch")
+    public BatchResult<ItemResponseDto> updateItems(@RequestHeader(USER_ID_HEADER) Long ownerId,
+                                                    @RequestParam(defaultValue = "false") boolean atomic,
+                                                    @RequestBody @Size(max = BatchResult.MAX_SIZE)
+                                                    List<ItemDto> itemDtos) {
+        return itemService.updateItems(ownerId, itemDtos, atomic);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<ItemResponseDto> updateItem(@RequestHeader(USER_ID_HEADER) Long ownerId,
                                                       @PathVariable Long itemId,
@@ -43,22 +72,53 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<ItemResponseDto> getById(@PathVariable Long itemId) {
-        return ResponseEntity.ok(itemService.findById(itemId));
+    public ResponseEntity<JsonBody> getById(@PathVariable Long itemId, WebRequest request) {
+        return itemService.findVersionedById(itemId).toResponse(request);
     }
 
     @GetMapping
-    public ResponseEntity<List<ItemResponseDto>> getAllItems(@RequestHeader(USER_ID_HEADER) Long ownerId) {
-        return ResponseEntity.ok(itemService.findAllItems(ownerId));
+    public ResponseEntity<JsonBody> getAllItems(@RequestHeader(USER_ID_HEADER) Long ownerId,
+                                                @RequestParam(defaultValue = "0")
+                                                @PositiveOrZero long from,
+                                                @RequestParam(required = false)
+                                                @Positive Integer size,
+                                                WebRequest request) {
+        return itemService.findAllItemsVersioned(ownerId, from, pageSize(size)).toResponse(request);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAllItems(@RequestHeader(USER_ID_HEADER) Long ownerId) {
+        return ndjsonWriter.<ItemResponseDto>stream(action -> itemService.exportAllItems(ownerId, action));
     }
 
     @GetMapping("/search")
-    public List<ItemResponseDto> searchItems(@RequestParam String text) {
-        return itemService.searchItems(text);
+    public ResponseEntity<JsonBody> searchItems(@RequestParam String text,
+                                                @RequestParam(required = false)
+                                                @PositiveOrZero Long from,
+                                                @RequestParam(required = false)
+                                                @Positive Integer size,
+                                                @RequestParam(defaultValue = SORT_BY_ID)
+                                                @Pattern(regexp = SORT_BY_ID + "|" + SORT_BY_RELEVANCE)
+                                                String sort,
+                                                WebRequest request) {
+        if (SORT_BY_RELEVANCE.equals(sort)) {
+            if (from != null) {
+                throw new UnsupportedPagingException("from cannot be combined with sort=relevance, only size can");
+            }
+            return itemService.searchItemsByRelevance(text, pageSize(size)).toResponse(request);
+        }
+        return itemService.searchItemsVersioned(text, from == null ? 0 : from, pageSize(size)).toResponse(request);
     }
 
     @DeleteMapping("/{itemId}")
     public void deleteItem(@PathVariable Long itemId) {
         itemService.deleteItem(itemId);
     }
+
+    /**
+     * Without {@code size} the whole list is returned, as before paging was added, rather than a silently cut page.
+     */
+    private static int pageSize(Integer size) {
+        return size == null ? Integer.MAX_VALUE : size;
+    }
 }
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserJsonWriter;
+import ru.practicum.shareit.web.JsonBody;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Writes items as {@link ItemResponseDto} JSON straight from the entities, owners included, without creating
+ * the DTOs. Field names are encoded once.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemJsonWriter {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString AVAILABLE = new SerializedString("available");
+    private static final SerializedString OWNER = new SerializedString("owner");
+    private static final SerializedString REQUEST_ID = new SerializedString("requestId");
+
+    private final UserJsonWriter userJsonWriter;
+
+    public JsonBody list(Collection<Item> items) {
+        return generator -> {
+            generator.writeStartArray(items, items.size());
+            for (Item item : items) {
+                write(generator, item);
+            }
+            generator.writeEndArray();
+        };
+    }
+
+    public void write(JsonGenerator generator, Item item) throws IOException {
+        generator.writeStartObject(item);
+        generator.writeFieldName(ID);
+        writeNumber(generator, item.getId());
+        generator.writeFieldName(NAME);
+        generator.writeString(item.getName());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(item.getDescription());
+        generator.writeFieldName(AVAILABLE);
+        if (item.getAvailable() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(item.getAvailable());
+        }
+        generator.writeFieldName(OWNER);
+        if (item.getOwner() == null) {
+            generator.writeNull();
+        } else {
+            userJsonWriter.write(generator, item.getOwner());
+        }
+        generator.writeFieldName(REQUEST_ID);
+        writeNumber(generator, item.getRequest() == null ? null : item.getRequest().getId());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+}
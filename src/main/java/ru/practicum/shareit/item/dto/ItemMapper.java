@@ -1,10 +1,12 @@
 package ru.practicum.shareit.item.dto;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.item.model.Item;
 
 @Mapper(componentModel = "spring")
 public interface ItemMapper {
+    @Mapping(target = "requestId", source = "request.id")
     ItemResponseDto toItemDto(Item item);
 
     Item toItem(ItemDto itemDto);
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedPagingException extends RuntimeException {
+    public UnsupportedPagingException(final String message) {
+        super(message);
+    }
+}
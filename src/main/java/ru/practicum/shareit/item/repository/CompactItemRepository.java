@@ -0,0 +1,608 @@
+package ru.practicum.shareit.item.repository;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.item.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.storage.AtomicIdGenerator;
+import ru.practicum.shareit.storage.DurableStore;
+import ru.practicum.shareit.storage.IdGenerator;
+import ru.practicum.shareit.storage.Journal;
+import ru.practicum.shareit.storage.LongIntHashMap;
+import ru.practicum.shareit.storage.SortedLongArray;
+import ru.practicum.shareit.storage.VersionClock;
+import ru.practicum.shareit.storage.VersionConflictException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepositoryImpl;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Item storage laid out in columns ({@code shareit.item-layout=compact}): each field is a primitive array indexed
+ * by row, availability is a bit set and ids map to rows through a primitive hash map, so an item costs a few array
+ * slots instead of an object graph with boxed fields and map nodes. The normalized search document of each row is
+ * kept in a column of its own, so candidate checks compare it as is instead of rebuilding it from name and
+ * description.
+ * Deleting an item moves the last row into its place. Reads materialize new {@link Item} instances.
+ * <p>
+ * Writers hold the write lock. Single items are read under an optimistic stamp that is validated afterwards;
+ * other reads share the read lock. Owners are resolved by id when an item is read.
+ */
+@Repository
+@ConditionalOnExpression("'${shareit.storage:memory}' == 'memory' and '${shareit.item-layout:objects}' == 'compact'")
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class CompactItemRepository implements ItemRepository, DurableStore, MeterBinder {
+    public static final byte STORE_ID = ItemRepositoryImpl.STORE_ID;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SNAPSHOT_CHUNK = 1024;
+    private static final long NO_REQUEST = 0;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongIntHashMap rows = new LongIntHashMap(INITIAL_CAPACITY);
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] ownerIds = new long[INITIAL_CAPACITY];
+    private long[] requestIds = new long[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private String[] documents = new String[INITIAL_CAPACITY];
+    private final BitSet available = new BitSet(INITIAL_CAPACITY);
+    private int size;
+
+    private final Map<Long, SortedLongArray> ownerIndex = new HashMap<>();
+    private final Map<Long, SortedLongArray> requestIndex = new HashMap<>();
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex(new RowDocuments());
+    private final ItemRelevanceIndex relevanceIndex = new ItemRelevanceIndex();
+    private final IdGenerator idGenerator;
+    private final VersionClock itemVersions = new VersionClock();
+    private final VersionClock collectionVersion = new VersionClock();
+    private final Function<Long, User> ownerLookup;
+    private volatile Journal journal = Journal.NONE;
+
+    @Autowired
+    public CompactItemRepository(UserRepositoryImpl userRepository) {
+        this(userRepository.directLookup());
+    }
+
+    public CompactItemRepository(Function<Long, User> ownerLookup) {
+        this(ownerLookup, new AtomicIdGenerator());
+    }
+
+    public CompactItemRepository(Function<Long, User> ownerLookup, IdGenerator idGenerator) {
+        this.ownerLookup = ownerLookup;
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public Item create(Item item) {
+        long lsn;
+        long stamp = lock.writeLock();
+        try {
+            do {
+                item.setId(idGenerator.nextId());
+            } while (rows.containsKey(item.getId()));
+            item.setVersion(itemVersions.next());
+            insert(item);
+            lsn = log(item);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+        return item;
+    }
+
+    @Override
+    public List<Item> createAll(List<Item> items) {
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        long lsn = 0;
+        long stamp = lock.writeLock();
+        try {
+            long id = idGenerator.reserve(items.size());
+            for (Item item : items) {
+                while (rows.containsKey(id)) {
+                    id = idGenerator.nextId();
+                }
+                item.setId(id++);
+                item.setVersion(itemVersions.next());
+                insert(item);
+                lsn = log(item);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+        return items;
+    }
+
+    @Override
+    public Item update(Item item) {
+        return replace(item.getId(), current -> {
+            if (!current.getVersion().equals(item.getVersion())) {
+                throw new VersionConflictException("Item", item.getId());
+            }
+            return item;
+        });
+    }
+
+    @Override
+    public Collection<Item> findAllItems() {
+        return read(() -> {
+            List<Item> items = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                items.add(materialize(row));
+            }
+            return items;
+        });
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Item item = find(id);
+                if (lock.validate(stamp)) {
+                    return Optional.ofNullable(item);
+                }
+            } catch (IndexOutOfBoundsException | NullPointerException ignore) {
+                // the columns were resized or rows moved meanwhile, read again under the lock
+            }
+        }
+        return Optional.ofNullable(read(() -> find(id)));
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(Long ownerId) {
+        return findAllByOwnerId(ownerId, Long.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(Long ownerId, long from, int size) {
+        return read(() -> {
+            SortedLongArray owned = ownerIndex.get(ownerId);
+            if (owned == null) {
+                return List.of();
+            }
+
+            List<Item> items = new ArrayList<>(Math.min(size, owned.size()));
+            for (int i = owned.ceilingIndex(from); i < owned.size() && items.size() < size; i++) {
+                items.add(materialize(rows.get(owned.get(i))));
+            }
+            return items;
+        });
+    }
+
+    @Override
+    public void forEachByOwnerId(Long ownerId, Consumer<Item> action) {
+        long[] owned = read(() -> idsOf(ownerIndex, ownerId));
+        // The lock is not held while the consumer runs, so a slow export does not stall writers
+        for (long id : owned) {
+            findById(id).ifPresent(action);
+        }
+    }
+
+    @Override
+    public List<Item> findAvailableItems() {
+        return read(() -> {
+            List<Item> items = new ArrayList<>();
+            for (int row = available.nextSetBit(0); row >= 0 && row < size; row = available.nextSetBit(row + 1)) {
+                items.add(materialize(row));
+            }
+            return items;
+        });
+    }
+
+    @Override
+    public Map<Long, List<Item>> findAllByRequestIds(Collection<Long> requestIds) {
+        return read(() -> {
+            Map<Long, List<Item>> result = new HashMap<>();
+            for (Long requestId : requestIds) {
+                SortedLongArray answers = requestIndex.get(requestId);
+                if (answers != null) {
+                    result.put(requestId, findAll(answers.toArray()));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<Item> searchItems(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        // Candidates are checked against the columns, so the lookup runs under the lock as well
+        return read(() -> findAll(searchIndex.search(text)));
+    }
+
+    @Override
+    public List<Item> searchItems(String text, long from, int size) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return read(() -> findAll(searchIndex.search(text, from, size)));
+    }
+
+    @Override
+    public List<Item> searchItemsByRelevance(String text, int size) {
+        List<Long> found = relevanceIndex.search(text, size);
+        return read(() -> findAll(found));
+    }
+
+    @Override
+    public void delete(Long id) {
+        long lsn = 0;
+        long stamp = lock.writeLock();
+        try {
+            if (remove(id)) {
+                lsn = journal.append(STORE_ID, ItemRecords.DELETE, output -> output.writeLong(id));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+    }
+
+    @Override
+    public void deleteAllByOwnerId(Long ownerId) {
+        long lsn = 0;
+        long stamp = lock.writeLock();
+        try {
+            for (long id : idsOf(ownerIndex, ownerId)) {
+                remove(id);
+                lsn = journal.append(STORE_ID, ItemRecords.DELETE, output -> output.writeLong(id));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+    }
+
+    @Override
+    public long collectionVersion() {
+        return collectionVersion.last();
+    }
+
+    @Override
+    public byte storeId() {
+        return STORE_ID;
+    }
+
+    @Override
+    public void attach(Journal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void replay(byte operation, DataInput input) throws IOException {
+        long id = input.readLong();
+        idGenerator.advanceTo(id);
+        Item item = operation == ItemRecords.PUT ? ItemRecords.readItem(id, input, ownerLookup) : null;
+        long stamp = lock.writeLock();
+        try {
+            remove(id);
+            if (item != null) {
+                itemVersions.advanceTo(item.getVersion());
+                insert(item);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void snapshot(RecordSink sink) throws IOException {
+        // Rows move when items are deleted, so the snapshot walks ids; changes meanwhile are replayed over it
+        long[] snapshotIds = read(() -> Arrays.copyOf(ids, size));
+        for (int from = 0; from < snapshotIds.length; from += SNAPSHOT_CHUNK) {
+            long[] chunk = Arrays.copyOfRange(snapshotIds, from, Math.min(from + SNAPSHOT_CHUNK, snapshotIds.length));
+            for (Item item : read(() -> findAll(chunk))) {
+                sink.write(ItemRecords.PUT, output -> ItemRecords.writeItem(output, item));
+            }
+        }
+    }
+
+    @Override
+    public void writeIndexImage(RecordSink sink) throws IOException {
+        ItemRecords.writePostings(sink, searchIndex);
+    }
+
+    @Override
+    public void loadIndexImage(byte operation, DataInput input) throws IOException {
+        ItemRecords.readPostings(input, searchIndex);
+    }
+
+    @Override
+    public void restore(byte operation, DataInput input) throws IOException {
+        long id = input.readLong();
+        idGenerator.advanceTo(id);
+        Item item = ItemRecords.readItem(id, input, ownerLookup);
+        long stamp = lock.writeLock();
+        try {
+            itemVersions.advanceTo(item.getVersion());
+            store(item);
+            searchIndex.restoreDocument(item);
+            relevanceIndex.index(item);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(MetricNames.STORAGE_SIZE, rows, LongIntHashMap::size)
+                .tag("storage", "items")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, ownerIndex, Map::size)
+                .tag("index", "items.owner")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, requestIndex, Map::size)
+                .tag("index", "items.request")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, searchIndex, ItemSearchIndex::documentCount)
+                .tag("index", "items.search.documents")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, searchIndex, ItemSearchIndex::gramCount)
+                .tag("index", "items.search.grams")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, relevanceIndex, ItemRelevanceIndex::termCount)
+                .tag("index", "items.relevance.terms")
+                .register(registry);
+    }
+
+    /**
+     * Swaps in the copy that {@code change} makes of the current item.
+     */
+    private Item replace(Long itemId, UnaryOperator<Item> change) {
+        Item item;
+        long lsn;
+        long stamp = lock.writeLock();
+        try {
+            int row = rows.get(itemId);
+            if (row == LongIntHashMap.MISSING) {
+                throw new ItemNotFoundException(itemId);
+            }
+
+            Item current = materialize(row);
+            item = change.apply(current);
+            item.setVersion(itemVersions.next());
+            // The search index diffs against the document still in the row
+            searchIndex.index(item);
+            removeFromKeyIndexes(row);
+            write(row, item);
+            addToKeyIndexes(item);
+            relevanceIndex.index(item);
+            lsn = log(item);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+        return item;
+    }
+
+    /**
+     * Appends the item as a new row and indexes it; the caller holds the write lock.
+     */
+    private void insert(Item item) {
+        store(item);
+        searchIndex.index(item);
+        relevanceIndex.index(item);
+    }
+
+    private void store(Item item) {
+        if (size == ids.length) {
+            grow(size * 2);
+        }
+        int row = size++;
+        write(row, item);
+        rows.put(item.getId(), row);
+        addToKeyIndexes(item);
+    }
+
+    /**
+     * Removes the item, moving the last row into its place; the caller holds the write lock.
+     */
+    private boolean remove(long id) {
+        int row = rows.get(id);
+        if (row == LongIntHashMap.MISSING) {
+            return false;
+        }
+
+        searchIndex.remove(id);
+        rows.remove(id);
+        removeFromKeyIndexes(row);
+        relevanceIndex.remove(id);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            ownerIds[row] = ownerIds[last];
+            requestIds[row] = requestIds[last];
+            versions[row] = versions[last];
+            names[row] = names[last];
+            descriptions[row] = descriptions[last];
+            documents[row] = documents[last];
+            available.set(row, available.get(last));
+            rows.put(ids[row], row);
+        }
+        names[last] = null;
+        descriptions[last] = null;
+        documents[last] = null;
+        available.clear(last);
+        return true;
+    }
+
+    private void write(int row, Item item) {
+        ids[row] = item.getId();
+        ownerIds[row] = item.getOwner().getId();
+        requestIds[row] = item.getRequest() == null ? NO_REQUEST : item.getRequest().getId();
+        versions[row] = item.getVersion();
+        names[row] = item.getName();
+        descriptions[row] = item.getDescription();
+        available.set(row, Boolean.TRUE.equals(item.getAvailable()));
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        ownerIds = Arrays.copyOf(ownerIds, capacity);
+        requestIds = Arrays.copyOf(requestIds, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        documents = Arrays.copyOf(documents, capacity);
+    }
+
+    private void addToKeyIndexes(Item item) {
+        ownerIndex.computeIfAbsent(item.getOwner().getId(), ownerId -> new SortedLongArray()).add(item.getId());
+        if (item.getRequest() != null) {
+            requestIndex.computeIfAbsent(item.getRequest().getId(), requestId -> new SortedLongArray())
+                    .add(item.getId());
+        }
+    }
+
+    private void removeFromKeyIndexes(int row) {
+        removeFromIndex(ownerIndex, ownerIds[row], ids[row]);
+        if (requestIds[row] != NO_REQUEST) {
+            removeFromIndex(requestIndex, requestIds[row], ids[row]);
+        }
+    }
+
+    private static void removeFromIndex(Map<Long, SortedLongArray> index, long key, long id) {
+        SortedLongArray keyed = index.get(key);
+        if (keyed != null && keyed.remove(id) && keyed.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static long[] idsOf(Map<Long, SortedLongArray> index, long key) {
+        SortedLongArray keyed = index.get(key);
+        return keyed == null ? new long[0] : keyed.toArray();
+    }
+
+    private Item find(long id) {
+        int row = rows.get(id);
+        return row == LongIntHashMap.MISSING ? null : materialize(row);
+    }
+
+    /**
+     * Reads the items that still exist, in the given order; the caller holds a lock.
+     */
+    private List<Item> findAll(List<Long> itemIds) {
+        List<Item> items = new ArrayList<>(itemIds.size());
+        for (Long id : itemIds) {
+            Item item = find(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private List<Item> findAll(long[] itemIds) {
+        List<Item> items = new ArrayList<>(itemIds.length);
+        for (long id : itemIds) {
+            Item item = find(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private Item materialize(int row) {
+        long ownerId = ownerIds[row];
+        User owner = ownerLookup.apply(ownerId);
+        Item item = Item.builder()
+                .id(ids[row])
+                .owner(owner == null ? User.builder().id(ownerId).build() : owner)
+                .name(names[row])
+                .description(descriptions[row])
+                .available(available.get(row))
+                .version(versions[row])
+                .build();
+        if (requestIds[row] != NO_REQUEST) {
+            item.setRequest(ItemRequest.builder().id(requestIds[row]).build());
+        }
+        return item;
+    }
+
+    /**
+     * Runs {@code reader} under the read lock, which is not reentrant: readers must not call back into it.
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long log(Item item) {
+        return journal.append(STORE_ID, ItemRecords.PUT, output -> ItemRecords.writeItem(output, item));
+    }
+
+    /**
+     * Search documents kept in the document column. Rows are stored before the index hears of them and cleared
+     * after it forgets them. The caller holds a lock.
+     */
+    private final class RowDocuments implements ItemSearchIndex.Documents {
+        @Override
+        public String get(Long itemId) {
+            int row = rows.get(itemId);
+            return row == LongIntHashMap.MISSING ? null : documents[row];
+        }
+
+        @Override
+        public String put(Long itemId, String document) {
+            int row = rows.get(itemId);
+            String previous = documents[row];
+            documents[row] = document;
+            return previous;
+        }
+
+        @Override
+        public String remove(Long itemId) {
+            int row = rows.get(itemId);
+            if (row == LongIntHashMap.MISSING) {
+                return null;
+            }
+            String previous = documents[row];
+            documents[row] = null;
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+    }
+}
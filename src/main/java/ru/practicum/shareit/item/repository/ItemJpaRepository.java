@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ItemJpaRepository extends JpaRepository<Item, Long> {
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAll();
+
+    @EntityGraph(attributePaths = "owner")
+    Optional<Item> findWithOwnerById(Long id);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllByOwnerIdOrderById(Long ownerId);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllByOwnerIdAndIdGreaterThanEqualOrderById(Long ownerId, Long from, Limit limit);
+
+    @EntityGraph(attributePaths = "owner")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Item> streamAllByOwnerIdOrderById(Long ownerId);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllByAvailableTrueOrderById();
+
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllByRequestIdInOrderById(Collection<Long> requestIds);
+
+    @EntityGraph(attributePaths = "owner")
+    @Query("select i from Item i " +
+            "where i.available = true " +
+            "and (lower(i.name) like lower(concat('%', :text, '%')) " +
+            "or lower(i.description) like lower(concat('%', :text, '%'))) " +
+            "order by i.id")
+    List<Item> search(@Param("text") String text);
+
+    @EntityGraph(attributePaths = "owner")
+    @Query("select i from Item i " +
+            "where i.available = true " +
+            "and i.id >= :from " +
+            "and (lower(i.name) like lower(concat('%', :text, '%')) " +
+            "or lower(i.description) like lower(concat('%', :text, '%'))) " +
+            "order by i.id")
+    List<Item> search(@Param("text") String text, @Param("from") Long from, Limit limit);
+
+    @Modifying
+    @Query("delete from Item i where i.owner.id = :ownerId")
+    void deleteAllByOwnerId(@Param("ownerId") Long ownerId);
+}
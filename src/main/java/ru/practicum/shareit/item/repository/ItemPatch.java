@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Applies a patch to a copy of a stored item, so the instance that readers may hold is never changed.
+ */
+public final class ItemPatch {
+    private ItemPatch() {
+    }
+
+    public static Item apply(Item item, ItemDto itemDto) {
+        Item patched = item.toBuilder().build();
+        if (itemDto.getName() != null) {
+            patched.setName(itemDto.getName());
+        }
+        if (itemDto.getDescription() != null) {
+            patched.setDescription(itemDto.getDescription());
+        }
+        if (itemDto.getAvailable() != null) {
+            patched.setAvailable(itemDto.getAvailable());
+        }
+        return patched;
+    }
+}
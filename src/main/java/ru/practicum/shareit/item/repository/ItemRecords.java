@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.storage.DurableStore.RecordSink;
+import ru.practicum.shareit.storage.Records;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Log, snapshot and index image records of the item store. Both item layouts write the same records under the
+ * same store id, so either layout restores the files of the other.
+ */
+final class ItemRecords {
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final byte POSTINGS = 3;
+
+    private ItemRecords() {
+    }
+
+    static void writeItem(DataOutput output, Item item) throws IOException {
+        output.writeLong(item.getId());
+        output.writeLong(item.getOwner().getId());
+        Records.writeString(output, item.getName());
+        Records.writeString(output, item.getDescription());
+        output.writeBoolean(Boolean.TRUE.equals(item.getAvailable()));
+        Records.writeNullableLong(output, item.getRequest() == null ? null : item.getRequest().getId());
+        output.writeLong(item.getVersion());
+    }
+
+    /**
+     * Reads the item that follows its id; an owner that {@code ownerLookup} does not know is restored with its id only.
+     */
+    static Item readItem(long id, DataInput input, Function<Long, User> ownerLookup) throws IOException {
+        long ownerId = input.readLong();
+        User owner = ownerLookup.apply(ownerId);
+        Item item = Item.builder()
+                .id(id)
+                .owner(owner == null ? User.builder().id(ownerId).build() : owner)
+                .name(Records.readString(input))
+                .description(Records.readString(input))
+                .available(input.readBoolean())
+                .build();
+        Long requestId = Records.readNullableLong(input);
+        if (requestId != null) {
+            item.setRequest(ItemRequest.builder().id(requestId).build());
+        }
+        item.setVersion(input.readLong());
+        return item;
+    }
+
+    /**
+     * Writes the gram postings, the expensive part of a search index rebuild, as {@link #POSTINGS} records.
+     */
+    static void writePostings(RecordSink sink, ItemSearchIndex searchIndex) throws IOException {
+        searchIndex.exportPostings((gram, ids) -> sink.write(POSTINGS, output -> {
+            Records.writeString(output, gram);
+            output.writeInt(ids.length);
+            for (long id : ids) {
+                output.writeLong(id);
+            }
+        }));
+    }
+
+    static void readPostings(DataInput input, ItemSearchIndex searchIndex) throws IOException {
+        String gram = Records.readString(input);
+        long[] ids = new long[input.readInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = input.readLong();
+        }
+        searchIndex.restorePostings(gram, ids);
+    }
+}
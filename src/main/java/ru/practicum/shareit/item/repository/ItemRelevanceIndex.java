@@ -0,0 +1,282 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Word index over names and descriptions of available items that ranks matches by relevance.
+ * Text is split into runs of letters and digits and case-folded, with "ё" indexed as "е", so Cyrillic and Latin
+ * words match regardless of case. A query word matches an indexed term exactly, as its prefix, or, from
+ * {@value #FUZZY_MIN_LENGTH} letters on, with one typo; typo candidates come from the one-letter deletions
+ * of the terms instead of a scan of the dictionary. Every query word has to match.
+ * Items are scored BM25-style, name words weighing more than description words, and only the best ones
+ * are kept in a bounded heap. Lookups never block; updates of one item must not run concurrently with each other.
+ */
+public class ItemRelevanceIndex {
+    private static final int FUZZY_MIN_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final float NAME_WEIGHT = 3;
+    private static final float DESCRIPTION_WEIGHT = 1;
+    private static final float EXACT_MATCH = 1;
+    private static final float PREFIX_MATCH = 0.6f;
+    private static final float FUZZY_MATCH = 0.4f;
+    private static final float SATURATION = 1.2f;
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble(Scored::score)
+            .thenComparing(Comparator.comparingLong(Scored::id).reversed());
+
+    private final Map<String, Map<Long, Float>> postings = new ConcurrentHashMap<>();
+    private final NavigableSet<String> dictionary = new ConcurrentSkipListSet<>();
+    private final Map<String, Set<String>> deletions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> documents = new ConcurrentHashMap<>();
+
+    public void index(Item item) {
+        remove(item.getId());
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+
+        Map<String, Float> weights = new HashMap<>();
+        for (String token : tokens(item.getName())) {
+            weights.merge(token, NAME_WEIGHT, Float::sum);
+        }
+        for (String token : tokens(item.getDescription())) {
+            weights.merge(token, DESCRIPTION_WEIGHT, Float::sum);
+        }
+        documents.put(item.getId(), Set.copyOf(weights.keySet()));
+        weights.forEach((term, weight) -> postings.compute(term, (key, ids) -> {
+            Map<Long, Float> result = ids;
+            if (result == null) {
+                result = new ConcurrentHashMap<>();
+                addTerm(term);
+            }
+            result.put(item.getId(), weight);
+            return result;
+        }));
+    }
+
+    public void remove(Long itemId) {
+        Set<String> terms = documents.remove(itemId);
+        if (terms == null) {
+            return;
+        }
+
+        for (String term : terms) {
+            postings.computeIfPresent(term, (key, ids) -> {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    removeTerm(term);
+                    return null;
+                }
+                return ids;
+            });
+        }
+    }
+
+    /**
+     * Returns the ids of up to {@code limit} items matching every word of {@code text}, most relevant first;
+     * equally relevant items are ordered by id.
+     */
+    public List<Long> search(String text, int limit) {
+        Set<String> words = new LinkedHashSet<>(tokens(text));
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int documentCount = Math.max(documents.size(), 1);
+        List<Map<Long, Float>> wordScores = new ArrayList<>(words.size());
+        for (String word : words) {
+            Map<Long, Float> scores = match(word, documentCount);
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+            wordScores.add(scores);
+        }
+        wordScores.sort(Comparator.comparingInt(Map::size));
+
+        PriorityQueue<Scored> best = new PriorityQueue<>(Math.min(limit, wordScores.get(0).size()) + 1, WORST_FIRST);
+        for (Map.Entry<Long, Float> candidate : wordScores.get(0).entrySet()) {
+            float score = candidate.getValue();
+            for (int i = 1; i < wordScores.size() && score > 0; i++) {
+                Float wordScore = wordScores.get(i).get(candidate.getKey());
+                score = wordScore == null ? 0 : score + wordScore;
+            }
+            if (score > 0) {
+                best.offer(new Scored(candidate.getKey(), score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        Long[] result = new Long[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = best.poll().id();
+        }
+        return List.of(result);
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Splits text into case-folded runs of letters and digits.
+     */
+    static List<String> tokens(String text) {
+        if (text == null) {
+            return List.of();
+        }
+
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                token.appendCodePoint(fold(codePoint));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Tells whether one insertion, deletion, substitution or swap of adjacent letters turns {@code a} into {@code b}.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int start = 0;
+        while (start < a.length() && start < b.length() && a.charAt(start) == b.charAt(start)) {
+            start++;
+        }
+        if (a.length() != b.length()) {
+            String longer = a.length() > b.length() ? a : b;
+            String shorter = a.length() > b.length() ? b : a;
+            return longer.startsWith(shorter.substring(start), start + 1);
+        }
+        if (start == a.length()) {
+            return true;
+        }
+        if (a.regionMatches(start + 1, b, start + 1, a.length() - start - 1)) {
+            return true;
+        }
+        return start + 1 < a.length() && a.charAt(start) == b.charAt(start + 1)
+                && a.charAt(start + 1) == b.charAt(start)
+                && a.regionMatches(start + 2, b, start + 2, a.length() - start - 2);
+    }
+
+    /**
+     * Scores every item containing a term that {@code word} matches; an item keeps the score of its best match.
+     */
+    private Map<Long, Float> match(String word, int documentCount) {
+        Map<Long, Float> scores = new HashMap<>();
+        addScores(scores, word, EXACT_MATCH, documentCount);
+
+        int expansions = 0;
+        for (String term : dictionary.subSet(word, false, word + Character.MAX_VALUE, false)) {
+            if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            addScores(scores, term, PREFIX_MATCH, documentCount);
+        }
+
+        if (word.length() >= FUZZY_MIN_LENGTH) {
+            for (String term : fuzzyCandidates(word)) {
+                if (!term.equals(word) && !term.startsWith(word) && withinOneEdit(word, term)) {
+                    addScores(scores, term, FUZZY_MATCH, documentCount);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Terms that may be one edit away from {@code word}: those it is a deletion of, its own deletions,
+     * and those sharing a deletion with it. Candidates still have to be checked.
+     */
+    private Set<String> fuzzyCandidates(String word) {
+        Set<String> candidates = new HashSet<>(deletions.getOrDefault(word, Set.of()));
+        for (String variant : deletionsOf(word)) {
+            if (variant.length() >= FUZZY_MIN_LENGTH && postings.containsKey(variant)) {
+                candidates.add(variant);
+            }
+            candidates.addAll(deletions.getOrDefault(variant, Set.of()));
+        }
+        return candidates;
+    }
+
+    private void addScores(Map<Long, Float> scores, String term, float quality, int documentCount) {
+        Map<Long, Float> ids = postings.get(term);
+        if (ids == null) {
+            return;
+        }
+        int frequency = ids.size();
+        // Both counts are read without a lock, so an item indexed meanwhile may be counted in one of them only
+        int documents = Math.max(documentCount, frequency);
+        double idf = Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+        ids.forEach((id, weight) -> {
+            float score = (float) (quality * idf * weight * (SATURATION + 1) / (weight + SATURATION));
+            scores.merge(id, score, Math::max);
+        });
+    }
+
+    private void addTerm(String term) {
+        dictionary.add(term);
+        if (term.length() >= FUZZY_MIN_LENGTH) {
+            for (String variant : deletionsOf(term)) {
+                deletions.compute(variant, (key, terms) -> {
+                    Set<String> result = terms == null ? ConcurrentHashMap.newKeySet() : terms;
+                    result.add(term);
+                    return result;
+                });
+            }
+        }
+    }
+
+    private void removeTerm(String term) {
+        dictionary.remove(term);
+        if (term.length() >= FUZZY_MIN_LENGTH) {
+            for (String variant : deletionsOf(term)) {
+                deletions.computeIfPresent(variant, (key, terms) -> {
+                    terms.remove(term);
+                    return terms.isEmpty() ? null : terms;
+                });
+            }
+        }
+    }
+
+    private static Set<String> deletionsOf(String word) {
+        Set<String> variants = new HashSet<>();
+        for (int i = 0; i < word.length(); i++) {
+            variants.add(word.substring(0, i) + word.substring(i + 1));
+        }
+        return variants;
+    }
+
+    private static int fold(int codePoint) {
+        int folded = Character.toLowerCase(Character.toUpperCase(codePoint));
+        return folded == 'ё' ? 'е' : folded;
+    }
+
+    private record Scored(long id, float score) {
+    }
+}
@@ -1,27 +1,88 @@
 package ru.practicum.shareit.item.repository;
 
-import ru.practicum.shareit.item.dto.ItemDto;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.storage.VersionConflictException;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ItemRepository {
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#result.id")
     Item create(Item item);
 
-    Item update(Long itemId, Long ownerId, ItemDto itemDto);
+    /**
+     * Stores all items, allocating their ids as one block.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, allEntries = true)
+    List<Item> createAll(List<Item> items);
+
+    /**
+     * Replaces the stored item with {@code item}, a changed copy that carries the version it was read with,
+     * and stamps a new version on it. Throws {@link VersionConflictException} if the item has changed since.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#item.id")
+    Item update(Item item);
 
     Collection<Item> findAllItems();
 
+    @Cacheable(cacheNames = CacheConfig.ITEMS)
     Optional<Item> findById(Long id);
 
+    /**
+     * Drops the cached copy of the item, so that the next read goes to the storage. Meant for an update that lost
+     * its version check: the copy it read may be older than the stored item.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#id")
+    default void evictCached(Long id) {
+    }
+
     List<Item> findAllByOwnerId(Long ownerId);
 
+    /**
+     * Returns up to {@code size} items of the owner with ids starting from {@code from}, ordered by id.
+     */
+    List<Item> findAllByOwnerId(Long ownerId, long from, int size);
+
+    /**
+     * Passes the owner's items to {@code action} one by one as they are read, without collecting them.
+     */
+    void forEachByOwnerId(Long ownerId, Consumer<Item> action);
+
     List<Item> findAvailableItems();
 
+    /**
+     * Returns the items answering each of the requests, ordered by id; requests without answers are left out.
+     */
+    Map<Long, List<Item>> findAllByRequestIds(Collection<Long> requestIds);
+
     List<Item> searchItems(String text);
 
+    /**
+     * Returns up to {@code size} available matching items with ids starting from {@code from}, ordered by id.
+     */
+    List<Item> searchItems(String text, long from, int size);
+
+    /**
+     * Returns up to {@code size} available items matching every word of {@code text}, most relevant first.
+     * Words match exactly, by prefix or with one typo, ignoring case.
+     */
+    List<Item> searchItemsByRelevance(String text, int size);
+
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#id")
     void delete(Long id);
 
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, allEntries = true)
+    void deleteAllByOwnerId(Long ownerId);
+
+    /**
+     * Changes after every create, update or delete, once the change is visible to reads;
+     * {@code -1} if changes are not tracked, e.g. because other processes share the storage.
+     */
+    long collectionVersion();
 }
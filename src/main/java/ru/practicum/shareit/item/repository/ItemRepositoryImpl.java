@@ -1,101 +1,468 @@
 package ru.practicum.shareit.item.repository;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Repository;
-import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.config.MetricNames;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
-import ru.practicum.shareit.item.exception.NotOwnerException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.storage.AtomicIdGenerator;
+import ru.practicum.shareit.storage.DurableStore;
+import ru.practicum.shareit.storage.IdBitmap;
+import ru.practicum.shareit.storage.IdGenerator;
+import ru.practicum.shareit.storage.Journal;
+import ru.practicum.shareit.storage.StripedLock;
+import ru.practicum.shareit.storage.VersionConflictException;
+import ru.practicum.shareit.storage.VersionClock;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepositoryImpl;
 
-import java.util.Optional;
-import java.util.Map;
-import java.util.HashMap;
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Repository
-public class ItemRepositoryImpl implements ItemRepository {
-    private final Map<Long, Item> storage = new HashMap<>();
+@ConditionalOnExpression("'${shareit.storage:memory}' == 'memory' and '${shareit.item-layout:objects}' == 'objects'")
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class ItemRepositoryImpl implements ItemRepository, DurableStore, MeterBinder {
+    public static final byte STORE_ID = 2;
+
+    private final Map<Long, Item> storage = new ConcurrentHashMap<>();
+    private final Map<Long, IdBitmap> ownerIndex = new ConcurrentHashMap<>();
+    private final Map<Long, IdBitmap> requestIndex = new ConcurrentHashMap<>();
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex();
+    private final ItemRelevanceIndex relevanceIndex = new ItemRelevanceIndex();
+    private final StripedLock locks = new StripedLock();
+    private final IdGenerator idGenerator;
+    private final VersionClock itemVersions = new VersionClock();
+    private final VersionClock collectionVersion = new VersionClock();
+    private volatile Journal journal = Journal.NONE;
+    private volatile Function<Long, User> ownerLookup = ownerId -> null;
+
+    @Autowired
+    public ItemRepositoryImpl(UserRepositoryImpl userRepository) {
+        this();
+        this.ownerLookup = userRepository.directLookup();
+    }
+
+    public ItemRepositoryImpl() {
+        this(new AtomicIdGenerator());
+    }
+
+    public ItemRepositoryImpl(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
 
     @Override
     public Item create(Item item) {
-        item.setId(getNextId());
-        storage.put(item.getId(), item);
+        item.setVersion(itemVersions.next());
+        do {
+            item.setId(idGenerator.nextId());
+        } while (storage.putIfAbsent(item.getId(), item) != null);
+
+        long lsn = addToIndexes(item);
+        collectionVersion.next();
+        journal.sync(lsn);
         return item;
     }
 
     @Override
-    public Item update(Long itemId, Long ownerId, ItemDto itemDto) {
-        Optional<Item> itemOptional = findById(itemId);
-        if (itemOptional.isPresent()) {
-            Item item = itemOptional.get();
-            if (!item.getOwner().getId().equals(ownerId)) {
-                throw new NotOwnerException(ownerId, itemId);
-            }
+    public List<Item> createAll(List<Item> items) {
+        if (items.isEmpty()) {
+            return items;
+        }
 
-            if (itemDto.getName() != null) {
-                item.setName(itemDto.getName());
-            }
-            if (itemDto.getDescription() != null) {
-                item.setDescription(itemDto.getDescription());
-            }
-            if (itemDto.getAvailable() != null) {
-                item.setAvailable(itemDto.getAvailable());
+        long id = idGenerator.reserve(items.size());
+        long lsn = 0;
+        for (Item item : items) {
+            item.setVersion(itemVersions.next());
+            item.setId(id++);
+            while (storage.putIfAbsent(item.getId(), item) != null) {
+                item.setId(idGenerator.nextId());
             }
+            lsn = Math.max(lsn, addToIndexes(item));
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+        return items;
+    }
 
+    @Override
+    public Item update(Item item) {
+        return replace(item.getId(), current -> {
+            if (!current.getVersion().equals(item.getVersion())) {
+                throw new VersionConflictException("Item", item.getId());
+            }
             return item;
-        }
-        throw new ItemNotFoundException(itemId);
+        });
     }
 
     @Override
     public Collection<Item> findAllItems() {
-        return storage.values();
+        return storage.values().stream()
+                .map(this::withCurrentOwner)
+                .toList();
     }
 
     @Override
     public Optional<Item> findById(Long id) {
-        return Optional.ofNullable(storage.get(id));
+        return Optional.ofNullable(find(id));
     }
 
     @Override
     public List<Item> findAllByOwnerId(Long ownerId) {
-        return storage.values().stream()
-                .filter(item -> item.getOwner().getId().equals(ownerId))
-                .collect(Collectors.toList());
+        return findAll(ownerIndex.get(ownerId), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(Long ownerId, long from, int size) {
+        return findAll(ownerIndex.get(ownerId), from, size);
+    }
+
+    @Override
+    public void forEachByOwnerId(Long ownerId, Consumer<Item> action) {
+        IdBitmap ids = ownerIndex.get(ownerId);
+        if (ids == null) {
+            return;
+        }
+
+        for (long id = ids.next(0); id >= 0; id = ids.next(id + 1)) {
+            Item item = find(id);
+            if (item != null) {
+                action.accept(item);
+            }
+        }
     }
 
     @Override
     public List<Item> findAvailableItems() {
-        return storage.values().stream()
-                .filter(Item::getAvailable)
+        return searchIndex.findAvailable(0, Integer.MAX_VALUE).stream()
+                .map(this::find)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<Long, List<Item>> findAllByRequestIds(Collection<Long> requestIds) {
+        Map<Long, List<Item>> result = new HashMap<>();
+        for (Long requestId : requestIds) {
+            List<Item> items = findAll(requestIndex.get(requestId), 0, Integer.MAX_VALUE);
+            if (!items.isEmpty()) {
+                result.put(requestId, items);
+            }
+        }
+        return result;
+    }
+
     @Override
     public List<Item> searchItems(String text) {
         if (text == null || text.isBlank()) {
             return List.of();
         }
 
-        return storage.values().stream()
-                .filter(item -> item.getAvailable() &&
-                        (item.getName().toLowerCase().contains(text.toLowerCase()) ||
-                                item.getDescription().toLowerCase().contains(text.toLowerCase())))
+        return searchIndex.search(text).stream()
+                .map(this::find)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Item> searchItems(String text, long from, int size) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        return searchIndex.search(text, from, size).stream()
+                .map(this::find)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Item> searchItemsByRelevance(String text, int size) {
+        return relevanceIndex.search(text, size).stream()
+                .map(this::find)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     @Override
     public void delete(Long id) {
-        storage.remove(id);
+        long lsn = 0;
+        Lock lock = locks.forKey(id);
+        lock.lock();
+        try {
+            if (remove(id) != null) {
+                lsn = journal.append(STORE_ID, ItemRecords.DELETE, output -> output.writeLong(id));
+            }
+        } finally {
+            lock.unlock();
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+    }
+
+    @Override
+    public void deleteAllByOwnerId(Long ownerId) {
+        IdBitmap ids = ownerIndex.remove(ownerId);
+        if (ids != null) {
+            for (long id : ids.toArray()) {
+                delete(id);
+            }
+        }
+    }
+
+    @Override
+    public long collectionVersion() {
+        return collectionVersion.last();
+    }
+
+    /**
+     * Resolves item owners while replaying and reading; an owner it does not know is restored with its id only,
+     * and a read keeps the owner the item was stored with.
+     */
+    public void setOwnerLookup(Function<Long, User> ownerLookup) {
+        this.ownerLookup = ownerLookup;
+    }
+
+    @Override
+    public byte storeId() {
+        return STORE_ID;
+    }
+
+    @Override
+    public void attach(Journal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void replay(byte operation, DataInput input) throws IOException {
+        long id = input.readLong();
+        idGenerator.advanceTo(id);
+        remove(id);
+        if (operation == ItemRecords.PUT) {
+            Item item = ItemRecords.readItem(id, input, ownerLookup);
+            itemVersions.advanceTo(item.getVersion());
+            storage.put(id, item);
+            addToKeyIndexes(item);
+            searchIndex.index(item);
+            relevanceIndex.index(item);
+        }
+    }
+
+    @Override
+    public void snapshot(RecordSink sink) throws IOException {
+        // An item changed while it is written is logged again after the snapshot checkpoint and replayed over it
+        for (Item item : storage.values()) {
+            sink.write(ItemRecords.PUT, output -> ItemRecords.writeItem(output, item));
+        }
+    }
+
+    @Override
+    public void writeIndexImage(RecordSink sink) throws IOException {
+        // Documents, words and owners come back with the items
+        ItemRecords.writePostings(sink, searchIndex);
+    }
+
+    @Override
+    public void loadIndexImage(byte operation, DataInput input) throws IOException {
+        ItemRecords.readPostings(input, searchIndex);
+    }
+
+    @Override
+    public void restore(byte operation, DataInput input) throws IOException {
+        long id = input.readLong();
+        idGenerator.advanceTo(id);
+        Item item = ItemRecords.readItem(id, input, ownerLookup);
+        itemVersions.advanceTo(item.getVersion());
+        storage.put(id, item);
+        addToKeyIndexes(item);
+        searchIndex.restoreDocument(item);
+        relevanceIndex.index(item);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(MetricNames.STORAGE_SIZE, storage, Map::size)
+                .tag("storage", "items")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, ownerIndex, Map::size)
+                .tag("index", "items.owner")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, requestIndex, Map::size)
+                .tag("index", "items.request")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, searchIndex, ItemSearchIndex::documentCount)
+                .tag("index", "items.search.documents")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, searchIndex, ItemSearchIndex::gramCount)
+                .tag("index", "items.search.grams")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, relevanceIndex, ItemRelevanceIndex::termCount)
+                .tag("index", "items.relevance.terms")
+                .register(registry);
+    }
+
+    /**
+     * Swaps in the copy that {@code change} makes of the current item. Stored items are never changed in place,
+     * so readers, who take no lock, see either the old or the new item as a whole.
+     */
+    private Item replace(Long itemId, UnaryOperator<Item> change) {
+        Item item;
+        long lsn;
+        Lock lock = locks.forKey(itemId);
+        lock.lock();
+        try {
+            Item current = storage.get(itemId);
+            if (current == null) {
+                throw new ItemNotFoundException(itemId);
+            }
+
+            item = change.apply(current);
+            item.setVersion(itemVersions.next());
+            storage.put(itemId, item);
+            if (!sameKeys(current, item)) {
+                removeFromKeyIndexes(current);
+                addToKeyIndexes(item);
+            }
+            searchIndex.index(item);
+            relevanceIndex.index(item);
+            lsn = log(item);
+        } finally {
+            lock.unlock();
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+        return item;
+    }
+
+    /**
+     * Indexes and logs a newly stored item, returning the sequence number to sync on.
+     */
+    private long addToIndexes(Item item) {
+        Lock lock = locks.forKey(item.getId());
+        lock.lock();
+        try {
+            // Replaced or deleted meanwhile; a read that only refreshed the owner keeps the version
+            Item stored = storage.get(item.getId());
+            if (stored == null || !stored.getVersion().equals(item.getVersion())) {
+                return 0;
+            }
+            addToKeyIndexes(item);
+            searchIndex.index(item);
+            relevanceIndex.index(item);
+            return log(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the item to the owner index and, if it answers a request, to the request index.
+     */
+    private void addToKeyIndexes(Item item) {
+        addToIndex(ownerIndex, item.getOwner().getId(), item.getId());
+        if (item.getRequest() != null) {
+            addToIndex(requestIndex, item.getRequest().getId(), item.getId());
+        }
+    }
+
+    private void removeFromKeyIndexes(Item item) {
+        removeFromIndex(ownerIndex, item.getOwner().getId(), item.getId());
+        if (item.getRequest() != null) {
+            removeFromIndex(requestIndex, item.getRequest().getId(), item.getId());
+        }
+    }
+
+    private static boolean sameKeys(Item a, Item b) {
+        return a.getOwner().getId().equals(b.getOwner().getId())
+                && Objects.equals(requestId(a), requestId(b));
+    }
+
+    private static Long requestId(Item item) {
+        return item.getRequest() == null ? null : item.getRequest().getId();
+    }
+
+    private static void addToIndex(Map<Long, IdBitmap> index, Long key, Long itemId) {
+        index.compute(key, (k, ids) -> {
+            IdBitmap result = ids == null ? new IdBitmap() : ids;
+            result.add(itemId);
+            return result;
+        });
+    }
+
+    private static void removeFromIndex(Map<Long, IdBitmap> index, Long key, Long itemId) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(itemId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Returns up to {@code size} stored items of {@code ids}, which may be {@code null}, starting from id {@code from}.
+     */
+    private List<Item> findAll(IdBitmap ids, long from, int size) {
+        List<Item> items = new ArrayList<>();
+        if (ids == null) {
+            return items;
+        }
+
+        for (long id = ids.next(from); id >= 0 && items.size() < size; id = ids.next(id + 1)) {
+            Item item = find(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private Item find(Long id) {
+        return withCurrentOwner(storage.get(id));
+    }
+
+    /**
+     * Users are replaced rather than changed when they are updated, so an item that still holds a replaced owner
+     * is returned as a copy holding the current one. The stored item is left as it is; reads never write.
+     */
+    private Item withCurrentOwner(Item item) {
+        if (item == null) {
+            return null;
+        }
+
+        User owner = ownerLookup.apply(item.getOwner().getId());
+        if (owner == null || owner == item.getOwner()) {
+            return item;
+        }
+        return item.toBuilder().owner(owner).build();
+    }
+
+    private Item remove(Long id) {
+        Item item = storage.remove(id);
+        if (item != null) {
+            removeFromKeyIndexes(item);
+            searchIndex.remove(id);
+            relevanceIndex.remove(id);
+        }
+        return item;
     }
 
-    private long getNextId() {
-        long currentMaxId = storage.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+    private long log(Item item) {
+        return journal.append(STORE_ID, ItemRecords.PUT, output -> ItemRecords.writeItem(output, item));
     }
 }
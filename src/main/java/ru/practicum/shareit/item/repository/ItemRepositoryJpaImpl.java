@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item.repository;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.storage.VersionConflictException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@ConditionalOnProperty(name = "shareit.storage", havingValue = "jpa")
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class ItemRepositoryJpaImpl implements ItemRepository {
+    private final ItemJpaRepository itemJpaRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Item create(Item item) {
+        return itemJpaRepository.save(item);
+    }
+
+    @Override
+    @Transactional
+    public List<Item> createAll(List<Item> items) {
+        return itemJpaRepository.saveAll(items);
+    }
+
+    @Override
+    @Transactional
+    public Item update(Item item) {
+        try {
+            // Flushing checks the version and bumps it now, so the returned item carries the one it is stored with
+            return itemJpaRepository.saveAndFlush(item);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException("Item", item.getId());
+        }
+    }
+
+    @Override
+    public Collection<Item> findAllItems() {
+        return itemJpaRepository.findAll();
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        return itemJpaRepository.findWithOwnerById(id);
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(Long ownerId) {
+        return itemJpaRepository.findAllByOwnerIdOrderById(ownerId);
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(Long ownerId, long from, int size) {
+        return itemJpaRepository.findAllByOwnerIdAndIdGreaterThanEqualOrderById(ownerId, from, Limit.of(size));
+    }
+
+    @Override
+    public void forEachByOwnerId(Long ownerId, Consumer<Item> action) {
+        try (Stream<Item> items = itemJpaRepository.streamAllByOwnerIdOrderById(ownerId)) {
+            items.forEach(item -> {
+                action.accept(item);
+                entityManager.detach(item);
+            });
+        }
+    }
+
+    @Override
+    public List<Item> findAvailableItems() {
+        return itemJpaRepository.findAllByAvailableTrueOrderById();
+    }
+
+    @Override
+    public Map<Long, List<Item>> findAllByRequestIds(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return itemJpaRepository.findAllByRequestIdInOrderById(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+    }
+
+    @Override
+    public List<Item> searchItems(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return itemJpaRepository.search(text);
+    }
+
+    @Override
+    public List<Item> searchItems(String text, long from, int size) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return itemJpaRepository.search(text, from, Limit.of(size));
+    }
+
+    /**
+     * Ranking needs the in-memory word index, so this falls back to substring search in id order.
+     */
+    @Override
+    public List<Item> searchItemsByRelevance(String text, int size) {
+        return searchItems(text, 0, size);
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        itemJpaRepository.deleteById(id);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByOwnerId(Long ownerId) {
+        itemJpaRepository.deleteAllByOwnerId(ownerId);
+    }
+
+    @Override
+    public long collectionVersion() {
+        return -1;
+    }
+}
@@ -0,0 +1,271 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.storage.IdBitmap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inverted n-gram index over names and descriptions of items, with their availability kept as a bitmap.
+ * Every gram of length 1..{@value #GRAM_LENGTH} is mapped to a bitmap of the ids of the items containing it,
+ * so a substring lookup intersects the bitmaps of the query grams with the availability bitmap and any extra
+ * filters, stepping from one common id to the next in ascending order and stopping after a page.
+ * Making an item available or not flips one bit and leaves its grams in place.
+ * Lookups never block; updates of one item must not run concurrently with each other.
+ * <p>
+ * Candidates are checked against the document of the item, its normalized text. By default the index keeps the
+ * documents itself; a storage that already holds the text can serve them instead, see {@link Documents}.
+ */
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final char FIELD_SEPARATOR = '\n';
+
+    private final Map<String, IdBitmap> postings = new ConcurrentHashMap<>();
+    private final Documents documents;
+    private final IdBitmap available = new IdBitmap();
+    private final Lock availableLock = new ReentrantLock();
+
+    public ItemSearchIndex() {
+        this(new MapDocuments());
+    }
+
+    public ItemSearchIndex(Documents documents) {
+        this.documents = documents;
+    }
+
+    public void index(Item item) {
+        Long id = item.getId();
+        String document = document(item);
+        String previous = documents.put(id, document);
+        if (!document.equals(previous)) {
+            Set<String> grams = grams(document);
+            Set<String> previousGrams = previous == null ? Set.of() : grams(previous);
+            for (String gram : grams) {
+                if (!previousGrams.contains(gram)) {
+                    postings.compute(gram, (key, ids) -> {
+                        IdBitmap result = ids == null ? new IdBitmap() : ids;
+                        result.add(id);
+                        return result;
+                    });
+                }
+            }
+            for (String gram : previousGrams) {
+                if (!grams.contains(gram)) {
+                    removePosting(gram, id);
+                }
+            }
+        }
+        setAvailable(id, Boolean.TRUE.equals(item.getAvailable()));
+    }
+
+    public void remove(Long itemId) {
+        setAvailable(itemId, false);
+        String document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+
+        for (String gram : grams(document)) {
+            removePosting(gram, itemId);
+        }
+    }
+
+    public List<Long> search(String text) {
+        return search(text, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns up to {@code size} ids of available matching items that are also in each of {@code filters},
+     * in ascending order, starting from id {@code from}.
+     */
+    public List<Long> search(String text, long from, int size, IdBitmap... filters) {
+        String query = normalize(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        List<IdBitmap> sets = new ArrayList<>();
+        for (String gram : query.length() <= GRAM_LENGTH ? Set.of(query) : queryGrams(query)) {
+            IdBitmap ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            sets.add(ids);
+        }
+        sets.add(available);
+        sets.addAll(Arrays.asList(filters));
+        sets.sort(Comparator.comparingInt(IdBitmap::cardinality));
+
+        List<Long> result = new ArrayList<>();
+        for (long id = IdBitmap.nextCommon(sets, from); id >= 0 && result.size() < size;
+                id = IdBitmap.nextCommon(sets, id + 1)) {
+            String document = documents.get(id);
+            if (document != null && document.contains(query)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code size} ids of available items that are also in each of {@code filters},
+     * in ascending order, starting from id {@code from}.
+     */
+    public List<Long> findAvailable(long from, int size, IdBitmap... filters) {
+        List<IdBitmap> sets = new ArrayList<>();
+        sets.add(available);
+        sets.addAll(Arrays.asList(filters));
+        sets.sort(Comparator.comparingInt(IdBitmap::cardinality));
+
+        List<Long> result = new ArrayList<>();
+        for (long id = IdBitmap.nextCommon(sets, from); id >= 0 && result.size() < size;
+                id = IdBitmap.nextCommon(sets, id + 1)) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the document of an item whose grams are restored separately by {@link #restorePostings}.
+     */
+    public void restoreDocument(Item item) {
+        documents.put(item.getId(), document(item));
+        setAvailable(item.getId(), Boolean.TRUE.equals(item.getAvailable()));
+    }
+
+    /**
+     * Restores the postings of one gram from ids in ascending order, as passed to {@link #exportPostings}.
+     */
+    public void restorePostings(String gram, long[] ids) {
+        IdBitmap bitmap = new IdBitmap();
+        for (long id : ids) {
+            bitmap.add(id);
+        }
+        postings.put(gram, bitmap);
+    }
+
+    /**
+     * Passes the postings of every gram to {@code writer}; meant for an index that does not change meanwhile.
+     */
+    public void exportPostings(PostingsWriter writer) throws IOException {
+        for (Map.Entry<String, IdBitmap> entry : postings.entrySet()) {
+            writer.write(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    public int documentCount() {
+        return documents.size();
+    }
+
+    public int gramCount() {
+        return postings.size();
+    }
+
+    private void removePosting(String gram, Long itemId) {
+        postings.computeIfPresent(gram, (key, ids) -> {
+            ids.remove(itemId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private void setAvailable(Long itemId, boolean value) {
+        availableLock.lock();
+        try {
+            if (value) {
+                available.add(itemId);
+            } else {
+                available.remove(itemId);
+            }
+        } finally {
+            availableLock.unlock();
+        }
+    }
+
+    private static String document(Item item) {
+        return document(item.getName(), item.getDescription());
+    }
+
+    static String document(String name, String description) {
+        return normalize(name) + FIELD_SEPARATOR + normalize(description);
+    }
+
+    private static Set<String> grams(String document) {
+        Set<String> grams = new HashSet<>();
+        for (int start = 0; start < document.length(); start++) {
+            int maxEnd = Math.min(start + GRAM_LENGTH, document.length());
+            for (int end = start + 1; end <= maxEnd; end++) {
+                String gram = document.substring(start, end);
+                if (gram.indexOf(FIELD_SEPARATOR) < 0) {
+                    grams.add(gram);
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> queryGrams(String query) {
+        Set<String> grams = new HashSet<>();
+        for (int start = 0; start + GRAM_LENGTH <= query.length(); start++) {
+            grams.add(query.substring(start, start + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The documents of the indexed items. {@link #put} and {@link #remove} are told about every change
+     * and return the document the item had before it.
+     */
+    public interface Documents {
+        String get(Long itemId);
+
+        String put(Long itemId, String document);
+
+        String remove(Long itemId);
+
+        int size();
+    }
+
+    private static final class MapDocuments implements Documents {
+        private final Map<Long, String> documents = new ConcurrentHashMap<>();
+
+        @Override
+        public String get(Long itemId) {
+            return documents.get(itemId);
+        }
+
+        @Override
+        public String put(Long itemId, String document) {
+            return documents.put(itemId, document);
+        }
+
+        @Override
+        public String remove(Long itemId) {
+            return documents.remove(itemId);
+        }
+
+        @Override
+        public int size() {
+            return documents.size();
+        }
+    }
+
+    @FunctionalInterface
+    public interface PostingsWriter {
+        void write(String gram, long[] ids) throws IOException;
+    }
+}
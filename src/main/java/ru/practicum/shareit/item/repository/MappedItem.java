@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Item read from its off-heap record, see {@link OffHeapItemRepository}. The fixed-size fields are read when it is
+ * created, the name and description are decoded on first use. Records are never changed once written, so decoding
+ * later returns the item as it was read even if it has been updated or deleted since.
+ * <p>
+ * Record layout: id, owner id, request id ({@code 0} if none), version as {@code long}s, name and description
+ * lengths in bytes as {@code int}s, availability as a byte, then the UTF-8 name and description.
+ */
+final class MappedItem extends Item {
+    private static final int ID = 0;
+    private static final int OWNER_ID = 8;
+    private static final int REQUEST_ID = 16;
+    private static final int VERSION = 24;
+    private static final int NAME_LENGTH = 32;
+    private static final int DESCRIPTION_LENGTH = 36;
+    private static final int AVAILABLE = 40;
+    private static final int NAME = 41;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private volatile boolean nameDecoded;
+    private volatile boolean descriptionDecoded;
+
+    MappedItem(ByteBuffer buffer, int offset, User owner) {
+        this.buffer = buffer;
+        this.offset = offset;
+        setId(buffer.getLong(offset + ID));
+        setOwner(owner == null ? User.builder().id(ownerId(buffer, offset)).build() : owner);
+        long requestId = requestId(buffer, offset);
+        if (requestId != 0) {
+            setRequest(ItemRequest.builder().id(requestId).build());
+        }
+        setVersion(buffer.getLong(offset + VERSION));
+        setAvailable(available(buffer, offset));
+    }
+
+    static int length(byte[] name, byte[] description) {
+        return NAME + name.length + description.length;
+    }
+
+    static void write(ByteBuffer buffer, int offset, Item item, byte[] name, byte[] description) {
+        buffer.putLong(offset + ID, item.getId());
+        buffer.putLong(offset + OWNER_ID, item.getOwner().getId());
+        buffer.putLong(offset + REQUEST_ID, item.getRequest() == null ? 0 : item.getRequest().getId());
+        buffer.putLong(offset + VERSION, item.getVersion());
+        buffer.putInt(offset + NAME_LENGTH, name.length);
+        buffer.putInt(offset + DESCRIPTION_LENGTH, description.length);
+        buffer.put(offset + AVAILABLE, (byte) (Boolean.TRUE.equals(item.getAvailable()) ? 1 : 0));
+        buffer.put(offset + NAME, name);
+        buffer.put(offset + NAME + name.length, description);
+    }
+
+    static long id(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + ID);
+    }
+
+    static long ownerId(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + OWNER_ID);
+    }
+
+    static long requestId(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + REQUEST_ID);
+    }
+
+    static boolean available(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + AVAILABLE) != 0;
+    }
+
+    @Override
+    public String getName() {
+        if (!nameDecoded) {
+            super.setName(decode(offset + NAME, buffer.getInt(offset + NAME_LENGTH)));
+            nameDecoded = true;
+        }
+        return super.getName();
+    }
+
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        nameDecoded = true;
+    }
+
+    @Override
+    public String getDescription() {
+        if (!descriptionDecoded) {
+            int nameLength = buffer.getInt(offset + NAME_LENGTH);
+            super.setDescription(decode(offset + NAME + nameLength, buffer.getInt(offset + DESCRIPTION_LENGTH)));
+            descriptionDecoded = true;
+        }
+        return super.getDescription();
+    }
+
+    @Override
+    public void setDescription(String description) {
+        super.setDescription(description);
+        descriptionDecoded = true;
+    }
+
+    /**
+     * The builder copies fields directly, so both strings are decoded first.
+     */
+    @Override
+    public ItemBuilder toBuilder() {
+        getName();
+        getDescription();
+        return super.toBuilder();
+    }
+
+    private String decode(int from, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
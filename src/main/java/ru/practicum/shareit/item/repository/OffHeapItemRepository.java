@@ -0,0 +1,566 @@
+package ru.practicum.shareit.item.repository;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.item.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.storage.AtomicIdGenerator;
+import ru.practicum.shareit.storage.DurableStore;
+import ru.practicum.shareit.storage.IdGenerator;
+import ru.practicum.shareit.storage.Journal;
+import ru.practicum.shareit.storage.LongIntHashMap;
+import ru.practicum.shareit.storage.MappedSegments;
+import ru.practicum.shareit.storage.SortedLongArray;
+import ru.practicum.shareit.storage.VersionClock;
+import ru.practicum.shareit.storage.VersionConflictException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepositoryImpl;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Item storage outside the Java heap ({@code shareit.item-layout=off-heap}): every item is a record with a fixed
+ * layout in {@link MappedSegments}, see {@link MappedItem}. The heap holds only what the indexes need: a table
+ * from id to record address and the owner, request and search indexes. An update writes a new record and frees
+ * the old one; once half of a segment is free, its remaining records are moved and the segment is released.
+ * <p>
+ * Writers hold the write lock. Single items are read under an optimistic stamp that is validated afterwards;
+ * other reads share the read lock. Names and descriptions are decoded from the record when first used.
+ */
+@Repository
+@ConditionalOnExpression("'${shareit.storage:memory}' == 'memory' and '${shareit.item-layout:objects}' == 'off-heap'")
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class OffHeapItemRepository implements ItemRepository, DurableStore, MeterBinder {
+    public static final byte STORE_ID = ItemRepositoryImpl.STORE_ID;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SNAPSHOT_CHUNK = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongIntHashMap rows = new LongIntHashMap(INITIAL_CAPACITY);
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private int size;
+
+    private final MappedSegments segments;
+    private final Map<Long, SortedLongArray> ownerIndex = new HashMap<>();
+    private final Map<Long, SortedLongArray> requestIndex = new HashMap<>();
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex();
+    private final ItemRelevanceIndex relevanceIndex = new ItemRelevanceIndex();
+    private final IdGenerator idGenerator;
+    private final VersionClock itemVersions = new VersionClock();
+    private final VersionClock collectionVersion = new VersionClock();
+    private final Function<Long, User> ownerLookup;
+    private volatile Journal journal = Journal.NONE;
+
+    @Autowired
+    public OffHeapItemRepository(UserRepositoryImpl userRepository, MappedSegments itemSegments) {
+        this(userRepository.directLookup(), itemSegments);
+    }
+
+    public OffHeapItemRepository(Function<Long, User> ownerLookup, MappedSegments segments) {
+        this(ownerLookup, segments, new AtomicIdGenerator());
+    }
+
+    public OffHeapItemRepository(Function<Long, User> ownerLookup, MappedSegments segments, IdGenerator idGenerator) {
+        this.ownerLookup = ownerLookup;
+        this.segments = segments;
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public Item create(Item item) {
+        long lsn;
+        long stamp = lock.writeLock();
+        try {
+            do {
+                item.setId(idGenerator.nextId());
+            } while (rows.containsKey(item.getId()));
+            item.setVersion(itemVersions.next());
+            insert(item);
+            lsn = log(item);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+        return item;
+    }
+
+    @Override
+    public List<Item> createAll(List<Item> items) {
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        long lsn = 0;
+        long stamp = lock.writeLock();
+        try {
+            long id = idGenerator.reserve(items.size());
+            for (Item item : items) {
+                while (rows.containsKey(id)) {
+                    id = idGenerator.nextId();
+                }
+                item.setId(id++);
+                item.setVersion(itemVersions.next());
+                insert(item);
+                lsn = log(item);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+        return items;
+    }
+
+    @Override
+    public Item update(Item item) {
+        return replace(item.getId(), current -> {
+            if (!current.getVersion().equals(item.getVersion())) {
+                throw new VersionConflictException("Item", item.getId());
+            }
+            return item;
+        });
+    }
+
+    @Override
+    public Collection<Item> findAllItems() {
+        return read(() -> {
+            List<Item> items = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                items.add(decode(addresses[row]));
+            }
+            return items;
+        });
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Item item = find(id);
+                if (lock.validate(stamp)) {
+                    return Optional.ofNullable(item);
+                }
+            } catch (IndexOutOfBoundsException ignore) {
+                // the columns were resized meanwhile, read again under the lock
+            }
+        }
+        return Optional.ofNullable(read(() -> find(id)));
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(Long ownerId) {
+        return findAllByOwnerId(ownerId, Long.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(Long ownerId, long from, int size) {
+        return read(() -> {
+            SortedLongArray owned = ownerIndex.get(ownerId);
+            if (owned == null) {
+                return List.of();
+            }
+
+            List<Item> items = new ArrayList<>(Math.min(size, owned.size()));
+            for (int i = owned.ceilingIndex(from); i < owned.size() && items.size() < size; i++) {
+                items.add(decode(addresses[rows.get(owned.get(i))]));
+            }
+            return items;
+        });
+    }
+
+    @Override
+    public void forEachByOwnerId(Long ownerId, Consumer<Item> action) {
+        long[] owned = read(() -> idsOf(ownerIndex, ownerId));
+        // The lock is not held while the consumer runs, so a slow export does not stall writers
+        for (long id : owned) {
+            findById(id).ifPresent(action);
+        }
+    }
+
+    @Override
+    public List<Item> findAvailableItems() {
+        List<Long> found = searchIndex.findAvailable(0, Integer.MAX_VALUE);
+        return read(() -> findAll(found));
+    }
+
+    @Override
+    public Map<Long, List<Item>> findAllByRequestIds(Collection<Long> requestIds) {
+        return read(() -> {
+            Map<Long, List<Item>> result = new HashMap<>();
+            for (Long requestId : requestIds) {
+                SortedLongArray answers = requestIndex.get(requestId);
+                if (answers != null) {
+                    result.put(requestId, findAll(answers.toArray()));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<Item> searchItems(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<Long> found = searchIndex.search(text);
+        return read(() -> findAll(found));
+    }
+
+    @Override
+    public List<Item> searchItems(String text, long from, int size) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<Long> found = searchIndex.search(text, from, size);
+        return read(() -> findAll(found));
+    }
+
+    @Override
+    public List<Item> searchItemsByRelevance(String text, int size) {
+        List<Long> found = relevanceIndex.search(text, size);
+        return read(() -> findAll(found));
+    }
+
+    @Override
+    public void delete(Long id) {
+        long lsn = 0;
+        long stamp = lock.writeLock();
+        try {
+            if (remove(id)) {
+                lsn = journal.append(STORE_ID, ItemRecords.DELETE, output -> output.writeLong(id));
+                releaseSparseSegments();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+    }
+
+    @Override
+    public void deleteAllByOwnerId(Long ownerId) {
+        long lsn = 0;
+        long stamp = lock.writeLock();
+        try {
+            for (long id : idsOf(ownerIndex, ownerId)) {
+                remove(id);
+                lsn = journal.append(STORE_ID, ItemRecords.DELETE, output -> output.writeLong(id));
+            }
+            releaseSparseSegments();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+    }
+
+    @Override
+    public long collectionVersion() {
+        return collectionVersion.last();
+    }
+
+    @Override
+    public byte storeId() {
+        return STORE_ID;
+    }
+
+    @Override
+    public void attach(Journal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void replay(byte operation, DataInput input) throws IOException {
+        long id = input.readLong();
+        idGenerator.advanceTo(id);
+        Item item = operation == ItemRecords.PUT ? ItemRecords.readItem(id, input, ownerLookup) : null;
+        long stamp = lock.writeLock();
+        try {
+            remove(id);
+            if (item != null) {
+                itemVersions.advanceTo(item.getVersion());
+                insert(item);
+            }
+            releaseSparseSegments();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void snapshot(RecordSink sink) throws IOException {
+        // Rows move when items are deleted, so the snapshot walks ids; changes meanwhile are replayed over it
+        long[] snapshotIds = read(() -> Arrays.copyOf(ids, size));
+        for (int from = 0; from < snapshotIds.length; from += SNAPSHOT_CHUNK) {
+            long[] chunk = Arrays.copyOfRange(snapshotIds, from, Math.min(from + SNAPSHOT_CHUNK, snapshotIds.length));
+            for (Item item : read(() -> findAll(chunk))) {
+                sink.write(ItemRecords.PUT, output -> ItemRecords.writeItem(output, item));
+            }
+        }
+    }
+
+    @Override
+    public void writeIndexImage(RecordSink sink) throws IOException {
+        ItemRecords.writePostings(sink, searchIndex);
+    }
+
+    @Override
+    public void loadIndexImage(byte operation, DataInput input) throws IOException {
+        ItemRecords.readPostings(input, searchIndex);
+    }
+
+    @Override
+    public void restore(byte operation, DataInput input) throws IOException {
+        long id = input.readLong();
+        idGenerator.advanceTo(id);
+        Item item = ItemRecords.readItem(id, input, ownerLookup);
+        long stamp = lock.writeLock();
+        try {
+            itemVersions.advanceTo(item.getVersion());
+            store(item);
+            searchIndex.restoreDocument(item);
+            relevanceIndex.index(item);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(MetricNames.STORAGE_SIZE, rows, LongIntHashMap::size)
+                .tag("storage", "items")
+                .register(registry);
+        Gauge.builder(MetricNames.OFF_HEAP_SIZE, segments, MappedSegments::mappedBytes)
+                .tag("storage", "items")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, ownerIndex, Map::size)
+                .tag("index", "items.owner")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, requestIndex, Map::size)
+                .tag("index", "items.request")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, searchIndex, ItemSearchIndex::documentCount)
+                .tag("index", "items.search.documents")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, searchIndex, ItemSearchIndex::gramCount)
+                .tag("index", "items.search.grams")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, relevanceIndex, ItemRelevanceIndex::termCount)
+                .tag("index", "items.relevance.terms")
+                .register(registry);
+    }
+
+    /**
+     * Writes the copy that {@code change} makes of the current item as a new record and frees the old one.
+     */
+    private Item replace(Long itemId, UnaryOperator<Item> change) {
+        Item item;
+        long lsn;
+        long stamp = lock.writeLock();
+        try {
+            int row = rows.get(itemId);
+            if (row == LongIntHashMap.MISSING) {
+                throw new ItemNotFoundException(itemId);
+            }
+
+            long previous = addresses[row];
+            item = change.apply(decode(previous));
+            item.setVersion(itemVersions.next());
+            long address = write(item);
+            removeFromKeyIndexes(previous);
+            segments.free(previous);
+            addresses[row] = address;
+            addToKeyIndexes(item);
+            searchIndex.index(item);
+            relevanceIndex.index(item);
+            lsn = log(item);
+            releaseSparseSegments();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
+        return item;
+    }
+
+    /**
+     * Writes the item as a new record and indexes it; the caller holds the write lock.
+     */
+    private void insert(Item item) {
+        store(item);
+        searchIndex.index(item);
+        relevanceIndex.index(item);
+    }
+
+    private void store(Item item) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            addresses = Arrays.copyOf(addresses, size * 2);
+        }
+        long address = write(item);
+        int row = size++;
+        ids[row] = item.getId();
+        addresses[row] = address;
+        rows.put(item.getId(), row);
+        addToKeyIndexes(item);
+    }
+
+    private long write(Item item) {
+        byte[] name = item.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] description = item.getDescription().getBytes(StandardCharsets.UTF_8);
+        long address = segments.allocate(MappedItem.length(name, description));
+        MappedItem.write(segments.buffer(address), MappedSegments.offset(address), item, name, description);
+        return address;
+    }
+
+    /**
+     * Frees the item's record and moves the last row into its place; the caller holds the write lock.
+     */
+    private boolean remove(long id) {
+        int row = rows.remove(id);
+        if (row == LongIntHashMap.MISSING) {
+            return false;
+        }
+
+        removeFromKeyIndexes(addresses[row]);
+        segments.free(addresses[row]);
+        searchIndex.remove(id);
+        relevanceIndex.remove(id);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            addresses[row] = addresses[last];
+            rows.put(ids[row], row);
+        }
+        return true;
+    }
+
+    /**
+     * Moves the records left in mostly free segments to the current one and releases those segments.
+     */
+    private void releaseSparseSegments() {
+        for (int segment = segments.sparseSegment(); segment >= 0; segment = segments.sparseSegment()) {
+            segments.forEachRecord(segment, address -> {
+                int row = rows.get(MappedItem.id(segments.buffer(address), MappedSegments.offset(address)));
+                if (row != LongIntHashMap.MISSING && addresses[row] == address) {
+                    addresses[row] = segments.move(address);
+                }
+            });
+            segments.release(segment);
+        }
+    }
+
+    private void addToKeyIndexes(Item item) {
+        ownerIndex.computeIfAbsent(item.getOwner().getId(), ownerId -> new SortedLongArray()).add(item.getId());
+        if (item.getRequest() != null) {
+            requestIndex.computeIfAbsent(item.getRequest().getId(), requestId -> new SortedLongArray())
+                    .add(item.getId());
+        }
+    }
+
+    private void removeFromKeyIndexes(long address) {
+        ByteBuffer buffer = segments.buffer(address);
+        int offset = MappedSegments.offset(address);
+        long id = MappedItem.id(buffer, offset);
+        removeFromIndex(ownerIndex, MappedItem.ownerId(buffer, offset), id);
+        long requestId = MappedItem.requestId(buffer, offset);
+        if (requestId != 0) {
+            removeFromIndex(requestIndex, requestId, id);
+        }
+    }
+
+    private static void removeFromIndex(Map<Long, SortedLongArray> index, long key, long id) {
+        SortedLongArray keyed = index.get(key);
+        if (keyed != null && keyed.remove(id) && keyed.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static long[] idsOf(Map<Long, SortedLongArray> index, long key) {
+        SortedLongArray keyed = index.get(key);
+        return keyed == null ? new long[0] : keyed.toArray();
+    }
+
+    private Item find(long id) {
+        int row = rows.get(id);
+        if (row == LongIntHashMap.MISSING) {
+            return null;
+        }
+        // An optimistic reader may see the address of a segment released meanwhile; its stamp is then invalid
+        long address = addresses[row];
+        return segments.buffer(address) == null ? null : decode(address);
+    }
+
+    /**
+     * Reads the items that still exist, in the given order; the caller holds a lock.
+     */
+    private List<Item> findAll(List<Long> itemIds) {
+        List<Item> items = new ArrayList<>(itemIds.size());
+        for (Long id : itemIds) {
+            Item item = find(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private List<Item> findAll(long[] itemIds) {
+        List<Item> items = new ArrayList<>(itemIds.length);
+        for (long id : itemIds) {
+            Item item = find(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private Item decode(long address) {
+        ByteBuffer buffer = segments.buffer(address);
+        int offset = MappedSegments.offset(address);
+        return new MappedItem(buffer, offset, ownerLookup.apply(MappedItem.ownerId(buffer, offset)));
+    }
+
+    /**
+     * Runs {@code reader} under the read lock, which is not reentrant: readers must not call back into it.
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long log(Item item) {
+        return journal.append(STORE_ID, ItemRecords.PUT, output -> ItemRecords.writeItem(output, item));
+    }
+}
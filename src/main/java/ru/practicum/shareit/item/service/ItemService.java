@@ -1,23 +1,60 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.web.JsonBody;
+import ru.practicum.shareit.web.Versioned;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemResponseDto createItem(Long ownerId, ItemDto itemDto);
 
     ItemResponseDto updateItem(Long ownerId, Long itemId, ItemDto itemDto);
 
+    /**
+     * Creates the valid items and reports the invalid ones; if {@code atomic}, creates nothing unless all are valid.
+     */
+    BatchResult<ItemResponseDto> createItems(Long ownerId, List<ItemDto> itemDtos, boolean atomic);
+
+    /**
+     * Applies every patch that identifies an item of the owner; if {@code atomic}, applies all of them or none.
+     */
+    BatchResult<ItemResponseDto> updateItems(Long ownerId, List<ItemDto> itemDtos, boolean atomic);
+
     ItemResponseDto findById(Long itemId);
 
-    List<ItemResponseDto> findAllItems(Long ownerId);
+    /**
+     * The item serialized and tagged with its own and its owner's version. Concurrent calls for one item share
+     * one read and serialization, which is reused for a short while, see {@code shareit.coalescing.ttl}.
+     */
+    Versioned<JsonBody> findVersionedById(Long itemId);
+
+    List<ItemResponseDto> findAllItems(Long ownerId, long from, int size);
+
+    /**
+     * A page of the owner's items tagged with the versions of the item and user collections.
+     */
+    Versioned<JsonBody> findAllItemsVersioned(Long ownerId, long from, int size);
+
+    void exportAllItems(Long ownerId, Consumer<ItemResponseDto> action);
 
     Item itemExists(Long id);
 
-    List<ItemResponseDto> searchItems(String text);
+    List<ItemResponseDto> searchItems(String text, long from, int size);
+
+    /**
+     * A page of search results tagged with the versions of the item and user collections.
+     */
+    Versioned<JsonBody> searchItemsVersioned(String text, long from, int size);
+
+    /**
+     * The {@code size} items most relevant to {@code text}, tagged with the versions of the item and user collections.
+     */
+    Versioned<JsonBody> searchItemsByRelevance(String text, int size);
 
     void deleteItem(Long itemId);
 }
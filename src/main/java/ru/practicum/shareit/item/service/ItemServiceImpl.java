@@ -1,27 +1,60 @@
 package ru.practicum.shareit.item.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.batch.BatchResult;
+import ru.practicum.shareit.batch.BatchValidator;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.MetricNames;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemJsonWriter;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.exception.NotOwnerException;
 import ru.practicum.shareit.item.exception.NullOrEmptyException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemPatch;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.storage.OptimisticRetry;
+import ru.practicum.shareit.storage.VersionConflictException;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+import ru.practicum.shareit.user.event.UserUpdatedEvent;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.validation.Create;
+import ru.practicum.shareit.web.JsonBody;
+import ru.practicum.shareit.web.SerializedJson;
+import ru.practicum.shareit.web.SingleFlight;
+import ru.practicum.shareit.web.Versioned;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(MetricNames.SERVICE_TIMER)
 public class ItemServiceImpl implements ItemService {
     private final UserService userService;
     public final ItemRepository itemRepository;
     public final ItemMapper itemMapper;
+    private final BatchValidator batchValidator;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemJsonWriter itemJsonWriter;
+    private final ObjectMapper objectMapper;
+    private final SingleFlight<Long, Versioned<JsonBody>> itemResponses;
 
     @Override
     public ItemResponseDto createItem(Long ownerId, ItemDto itemDto) {
@@ -31,28 +64,95 @@ public class ItemServiceImpl implements ItemService {
         }
         Item item = itemMapper.toItem(itemDto);
         item.setOwner(owner);
+        if (itemDto.getRequestId() != null) {
+            item.setRequest(itemRequestRepository.findById(itemDto.getRequestId())
+                    .orElseThrow(() -> new ItemRequestNotFoundException(itemDto.getRequestId())));
+        }
         return itemMapper.toItemDto(itemRepository.create(item));
     }
 
     @Override
     public ItemResponseDto updateItem(Long ownerId, Long itemId, ItemDto itemDto) {
-        Item item = itemExists(itemId);
-        if (!Objects.equals(item.getOwner().getId(), ownerId)) {
-            throw new ItemNotFoundException(ownerId);
+        Item updatedItem = OptimisticRetry.run(() -> {
+            Item item = itemExists(itemId);
+            if (!Objects.equals(item.getOwner().getId(), ownerId)) {
+                throw new ItemNotFoundException(ownerId);
+            }
+            return itemRepository.update(ItemPatch.apply(item, itemDto));
+        }, () -> itemRepository.evictCached(itemId));
+        itemResponses.invalidate(itemId);
+        return itemMapper.toItemDto(updatedItem);
+    }
+
+    @Override
+    public BatchResult<ItemResponseDto> createItems(Long ownerId, List<ItemDto> itemDtos, boolean atomic) {
+        User owner = userService.userExists(ownerId);
+        List<String> errors = new ArrayList<>(itemDtos.size());
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            String error = batchValidator.validate(itemDto, Create.class);
+            ItemRequest request = null;
+            if (error == null && itemDto.getRequestId() != null) {
+                request = itemRequestRepository.findById(itemDto.getRequestId()).orElse(null);
+                if (request == null) {
+                    error = "requestId: " + new ItemRequestNotFoundException(itemDto.getRequestId()).getMessage();
+                }
+            }
+            errors.add(error);
+            if (error == null) {
+                Item item = itemMapper.toItem(itemDto);
+                item.setOwner(owner);
+                item.setRequest(request);
+                items.add(item);
+            }
+        }
+        if (atomic && items.size() < itemDtos.size()) {
+            return BatchResult.rejected(errors);
         }
 
-        if (itemDto.getName() != null) {
-            item.setName(itemDto.getName());
+        Iterator<Item> created = itemRepository.createAll(items).iterator();
+        List<ItemResponseDto> results = new ArrayList<>(itemDtos.size());
+        for (String error : errors) {
+            results.add(error == null ? itemMapper.toItemDto(created.next()) : null);
         }
-        if (itemDto.getDescription() != null) {
-            item.setDescription(itemDto.getDescription());
+        return BatchResult.applied(errors, results, BatchResult.Status.CREATED);
+    }
+
+    @Override
+    public BatchResult<ItemResponseDto> updateItems(Long ownerId, List<ItemDto> itemDtos, boolean atomic) {
+        userService.userExists(ownerId);
+        List<String> errors = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            Item item = itemDto == null || itemDto.getId() == null
+                    ? null
+                    : itemRepository.findById(itemDto.getId()).orElse(null);
+            errors.add(checkPatch(ownerId, itemDto, item));
         }
-        if (itemDto.getAvailable() != null) {
-            item.setAvailable(itemDto.getAvailable());
+        if (atomic && errors.stream().anyMatch(Objects::nonNull)) {
+            return BatchResult.rejected(errors);
         }
 
-        Item updatedItem = itemRepository.create(item);
-        return itemMapper.toItemDto(updatedItem);
+        List<ItemResponseDto> results = new ArrayList<>(Collections.nCopies(itemDtos.size(), null));
+        List<Change> changes = new ArrayList<>(itemDtos.size());
+        for (int i = 0; i < itemDtos.size(); i++) {
+            if (errors.get(i) != null) {
+                continue;
+            }
+            ItemDto itemDto = itemDtos.get(i);
+            try {
+                Change change = applyPatch(ownerId, itemDto);
+                changes.add(change);
+                results.set(i, itemMapper.toItemDto(change.after()));
+                itemResponses.invalidate(itemDto.getId());
+            } catch (ItemNotFoundException | NotOwnerException | VersionConflictException e) {
+                errors.set(i, e.getMessage());
+                if (atomic) {
+                    revert(changes);
+                    return BatchResult.rejected(errors);
+                }
+            }
+        }
+        return BatchResult.applied(errors, results, BatchResult.Status.UPDATED);
     }
 
     @Override
@@ -61,19 +161,52 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemResponseDto> findAllItems(Long ownerId) {
-        return itemRepository.findAllByOwnerId(ownerId).stream()
+    public Versioned<JsonBody> findVersionedById(Long itemId) {
+        return itemResponses.get(itemId, () -> {
+            Item item = itemExists(itemId);
+            JsonBody body = SerializedJson.of(objectMapper.getFactory(),
+                    generator -> itemJsonWriter.write(generator, item));
+            return Versioned.of(() -> body, item.getVersion(), item.getOwner().getVersion());
+        });
+    }
+
+    @Override
+    public List<ItemResponseDto> findAllItems(Long ownerId, long from, int size) {
+        return itemRepository.findAllByOwnerId(ownerId, from, size).stream()
                 .map(itemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemResponseDto> searchItems(String text) {
-        return itemRepository.searchItems(text).stream()
+    public Versioned<JsonBody> findAllItemsVersioned(Long ownerId, long from, int size) {
+        return Versioned.of(() -> itemJsonWriter.list(itemRepository.findAllByOwnerId(ownerId, from, size)),
+                itemRepository.collectionVersion(), userService.collectionVersion());
+    }
+
+    @Override
+    public void exportAllItems(Long ownerId, Consumer<ItemResponseDto> action) {
+        itemRepository.forEachByOwnerId(ownerId, item -> action.accept(itemMapper.toItemDto(item)));
+    }
+
+    @Override
+    public List<ItemResponseDto> searchItems(String text, long from, int size) {
+        return itemRepository.searchItems(text, from, size).stream()
                 .map(itemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Versioned<JsonBody> searchItemsVersioned(String text, long from, int size) {
+        return Versioned.of(() -> itemJsonWriter.list(itemRepository.searchItems(text, from, size)),
+                itemRepository.collectionVersion(), userService.collectionVersion());
+    }
+
+    @Override
+    public Versioned<JsonBody> searchItemsByRelevance(String text, int size) {
+        return Versioned.of(() -> itemJsonWriter.list(itemRepository.searchItemsByRelevance(text, size)),
+                itemRepository.collectionVersion(), userService.collectionVersion());
+    }
+
     @Override
     public Item itemExists(Long id) {
         return itemRepository.findById(id)
@@ -83,5 +216,100 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public void deleteItem(Long itemId) {
         itemRepository.delete(itemId);
+        bookingRepository.deleteAllByItemId(itemId);
+        itemResponses.invalidate(itemId);
+    }
+
+    /**
+     * Drops the cached copies and coalesced responses of the owner's items, which embed the owner.
+     */
+    @EventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        itemRepository.forEachByOwnerId(event.userId(), item -> {
+            itemRepository.evictCached(item.getId());
+            itemResponses.invalidate(item.getId());
+        });
+    }
+
+    /**
+     * Deletes the user's items and unlinks the items of others from the user's requests, which go next.
+     */
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        List<Long> requestIds = itemRequestRepository.findAllByRequestorId(event.userId()).stream()
+                .map(ItemRequest::getId)
+                .toList();
+        itemRepository.findAllByRequestIds(requestIds).values().stream()
+                .flatMap(List::stream)
+                .filter(item -> !Objects.equals(item.getOwner().getId(), event.userId()))
+                .forEach(item -> detachFromRequest(item.getId()));
+
+        List<Long> itemIds = new ArrayList<>();
+        itemRepository.forEachByOwnerId(event.userId(), item -> itemIds.add(item.getId()));
+        itemRepository.deleteAllByOwnerId(event.userId());
+        itemIds.forEach(itemResponses::invalidate);
+    }
+
+    private void detachFromRequest(Long itemId) {
+        OptimisticRetry.run(() -> itemRepository.findById(itemId)
+                .map(item -> itemRepository.update(item.toBuilder().request(null).build()))
+                .orElse(null), () -> itemRepository.evictCached(itemId));
+        itemResponses.invalidate(itemId);
+    }
+
+    private static String checkPatch(Long ownerId, ItemDto itemDto, Item item) {
+        if (itemDto == null) {
+            return "element must not be null";
+        }
+        if (itemDto.getId() == null) {
+            return "id: must not be null";
+        }
+        if (item == null) {
+            return new ItemNotFoundException(itemDto.getId()).getMessage();
+        }
+        if (!Objects.equals(item.getOwner().getId(), ownerId)) {
+            return new NotOwnerException(ownerId, item.getId()).getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * Patches the owner's item as it is now, reading it again whenever a concurrent update wins.
+     */
+    private Change applyPatch(Long ownerId, ItemDto itemDto) {
+        Long itemId = itemDto.getId();
+        return OptimisticRetry.run(() -> {
+            Item current = itemExists(itemId);
+            if (!Objects.equals(current.getOwner().getId(), ownerId)) {
+                throw new NotOwnerException(ownerId, itemId);
+            }
+            return new Change(current, itemRepository.update(ItemPatch.apply(current, itemDto)));
+        }, () -> itemRepository.evictCached(itemId));
+    }
+
+    /**
+     * Restores the items patched so far by an atomic batch that failed half way. Each restore is checked against
+     * the version the batch wrote, so an item changed by anyone else since keeps that change.
+     */
+    private void revert(List<Change> changes) {
+        for (Change change : changes) {
+            Item before = change.before();
+            try {
+                itemRepository.update(change.after().toBuilder()
+                        .name(before.getName())
+                        .description(before.getDescription())
+                        .available(before.getAvailable())
+                        .build());
+                itemResponses.invalidate(before.getId());
+            } catch (ItemNotFoundException | VersionConflictException ignore) {
+                // deleted or changed again concurrently, nothing to restore
+            }
+        }
+    }
+
+    /**
+     * An item as a patch found it and as the patch stored it.
+     */
+    private record Change(Item before, Item after) {
     }
 }
@@ -1,12 +1,58 @@
 package ru.practicum.shareit.request;
 
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.validation.Create;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
+@RequiredArgsConstructor
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ResponseEntity<ItemRequestResponseDto> create(@RequestHeader(USER_ID_HEADER) Long requestorId,
+                                                         @Validated({Create.class}) @RequestBody
+                                                         ItemRequestDto itemRequestDto) {
+        return new ResponseEntity<>(itemRequestService.create(requestorId, itemRequestDto), HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ItemRequestResponseDto>> getOwn(@RequestHeader(USER_ID_HEADER) Long requestorId) {
+        return ResponseEntity.ok(itemRequestService.findOwn(requestorId));
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestResponseDto>> getAll(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                               @RequestParam(defaultValue = "0")
+                                                               @PositiveOrZero int from,
+                                                               @RequestParam(defaultValue = DEFAULT_PAGE_SIZE)
+                                                               @Positive int size) {
+        return ResponseEntity.ok(itemRequestService.findAll(userId, from, size));
+    }
+
+    @GetMapping("/{requestId}")
+    public ResponseEntity<ItemRequestResponseDto> getById(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                          @PathVariable Long requestId) {
+        return ResponseEntity.ok(itemRequestService.findById(userId, requestId));
+    }
 }
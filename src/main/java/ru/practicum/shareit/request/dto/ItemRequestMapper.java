@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.dto;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", uses = ItemMapper.class)
+public interface ItemRequestMapper {
+    @Mapping(target = "id", source = "request.id")
+    @Mapping(target = "description", source = "request.description")
+    @Mapping(target = "created", source = "request.created")
+    @Mapping(target = "items", source = "items")
+    ItemRequestResponseDto toResponseDto(ItemRequest request, List<Item> items);
+
+    ItemRequest toItemRequest(ItemRequestDto itemRequestDto);
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.request.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ItemRequestNotFoundException extends RuntimeException {
+    public ItemRequestNotFoundException(final Long requestId) {
+        super("Item request with id = %d not found".formatted(requestId));
+    }
+}
@@ -1,5 +1,20 @@
 package ru.practicum.shareit.request.model;
 
 public enum Status {
-    WAITING, APPROVED, REJECTED, CANCELED
+    WAITING, APPROVED, REJECTED, CANCELED;
+
+    public boolean canChangeTo(Status status) {
+        return switch (this) {
+            case WAITING -> status == APPROVED || status == REJECTED || status == CANCELED;
+            case APPROVED -> status == CANCELED;
+            default -> false;
+        };
+    }
+
+    /**
+     * Whether a booking in this status holds its time slot.
+     */
+    public boolean isActive() {
+        return this == WAITING || this == APPROVED;
+    }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+public interface ItemRequestJpaRepository extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDescIdDesc(Long requestorId);
+
+    @Modifying
+    @Query("delete from ItemRequest r where r.requestor.id = :requestorId")
+    void deleteAllByRequestorId(@Param("requestorId") Long requestorId);
+}
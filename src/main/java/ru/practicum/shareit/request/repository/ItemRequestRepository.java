@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request.repository;
+
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemRequestRepository {
+    ItemRequest create(ItemRequest request);
+
+    Optional<ItemRequest> findById(Long id);
+
+    /**
+     * Returns the requests of the user, newest first.
+     */
+    List<ItemRequest> findAllByRequestorId(Long requestorId);
+
+    /**
+     * Returns up to {@code size} requests of other users, newest first, skipping the first {@code from}.
+     */
+    List<ItemRequest> findAllExceptRequestor(Long requestorId, int from, int size);
+
+    void deleteAllByRequestorId(Long requestorId);
+}
@@ -0,0 +1,223 @@
+package ru.practicum.shareit.request.repository;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.storage.AtomicIdGenerator;
+import ru.practicum.shareit.storage.DurableStore;
+import ru.practicum.shareit.storage.IdBitmap;
+import ru.practicum.shareit.storage.IdGenerator;
+import ru.practicum.shareit.storage.Journal;
+import ru.practicum.shareit.storage.Records;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Requests are never changed once created and ids are handed out in creation order, so requests are kept sorted
+ * by id, newest first, and pages are read straight off the sorted map.
+ * A page of other users' requests starts at a position: the id at that position is found through the ranks
+ * of {@code ids}, shifted past the requestor's own newer requests, and the map is entered right there.
+ */
+@Repository
+@ConditionalOnProperty(name = "shareit.storage", havingValue = "memory", matchIfMissing = true)
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class ItemRequestRepositoryImpl implements ItemRequestRepository, DurableStore, MeterBinder {
+    public static final byte STORE_ID = 3;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final Comparator<ItemRequest> NEWEST_FIRST = Comparator.comparing(ItemRequest::getId).reversed();
+
+    private final NavigableMap<Long, ItemRequest> storage = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final IdBitmap ids = new IdBitmap();
+    private final Lock idsLock = new ReentrantLock();
+    private final Map<Long, NavigableSet<ItemRequest>> requestorIndex = new ConcurrentHashMap<>();
+    private final IdGenerator idGenerator;
+    private volatile Journal journal = Journal.NONE;
+    private volatile Function<Long, User> requestorLookup = requestorId -> null;
+
+    public ItemRequestRepositoryImpl() {
+        this(new AtomicIdGenerator());
+    }
+
+    public ItemRequestRepositoryImpl(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public ItemRequest create(ItemRequest request) {
+        do {
+            request.setId(idGenerator.nextId());
+        } while (storage.putIfAbsent(request.getId(), request) != null);
+
+        addToIndexes(request);
+        journal.sync(journal.append(STORE_ID, PUT, output -> writeRequest(output, request)));
+        return request;
+    }
+
+    @Override
+    public Optional<ItemRequest> findById(Long id) {
+        return Optional.ofNullable(storage.get(id));
+    }
+
+    @Override
+    public List<ItemRequest> findAllByRequestorId(Long requestorId) {
+        NavigableSet<ItemRequest> requests = requestorIndex.get(requestorId);
+        return requests == null ? List.of() : List.copyOf(requests);
+    }
+
+    @Override
+    public List<ItemRequest> findAllExceptRequestor(Long requestorId, int from, int size) {
+        int total = ids.cardinality();
+        int start = from;
+        for (ItemRequest own : requestorIndex.getOrDefault(requestorId, Collections.emptyNavigableSet())) {
+            int newer = total - 1 - ids.rank(own.getId());
+            if (newer > start) {
+                break;
+            }
+            start++;
+        }
+
+        long startId = ids.select(total - 1 - start);
+        if (startId < 0) {
+            return List.of();
+        }
+        return storage.tailMap(startId, true).values().stream()
+                .filter(request -> !request.getRequestor().getId().equals(requestorId))
+                .limit(size)
+                .toList();
+    }
+
+    @Override
+    public void deleteAllByRequestorId(Long requestorId) {
+        NavigableSet<ItemRequest> requests = requestorIndex.remove(requestorId);
+        if (requests == null) {
+            return;
+        }
+
+        long lsn = 0;
+        for (ItemRequest request : requests) {
+            if (remove(request.getId()) != null) {
+                lsn = journal.append(STORE_ID, DELETE, output -> output.writeLong(request.getId()));
+            }
+        }
+        journal.sync(lsn);
+    }
+
+    /**
+     * Resolves requestors while replaying; a requestor it does not know is restored with its id only.
+     */
+    public void setRequestorLookup(Function<Long, User> requestorLookup) {
+        this.requestorLookup = requestorLookup;
+    }
+
+    @Override
+    public byte storeId() {
+        return STORE_ID;
+    }
+
+    @Override
+    public void attach(Journal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void replay(byte operation, DataInput input) throws IOException {
+        long id = input.readLong();
+        idGenerator.advanceTo(id);
+        if (operation == DELETE) {
+            remove(id);
+            return;
+        }
+        if (storage.containsKey(id)) {
+            return;
+        }
+
+        long requestorId = input.readLong();
+        User requestor = requestorLookup.apply(requestorId);
+        ItemRequest request = ItemRequest.builder()
+                .id(id)
+                .requestor(requestor == null ? User.builder().id(requestorId).build() : requestor)
+                .description(Records.readString(input))
+                .created(LocalDateTime.parse(Records.readString(input)))
+                .build();
+        storage.put(id, request);
+        addToIndexes(request);
+    }
+
+    @Override
+    public void snapshot(RecordSink sink) throws IOException {
+        for (ItemRequest request : storage.values()) {
+            sink.write(PUT, output -> writeRequest(output, request));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // The skip list counts its size by a full traversal, the bitmap keeps a count
+        Gauge.builder(MetricNames.STORAGE_SIZE, ids, IdBitmap::cardinality)
+                .tag("storage", "requests")
+                .register(registry);
+        Gauge.builder(MetricNames.INDEX_SIZE, requestorIndex, Map::size)
+                .tag("index", "requests.requestor")
+                .register(registry);
+    }
+
+    private void addToIndexes(ItemRequest request) {
+        idsLock.lock();
+        try {
+            ids.add(request.getId());
+        } finally {
+            idsLock.unlock();
+        }
+        requestorIndex.computeIfAbsent(request.getRequestor().getId(), requestorId ->
+                new ConcurrentSkipListSet<>(NEWEST_FIRST)).add(request);
+    }
+
+    private ItemRequest remove(long id) {
+        ItemRequest request = storage.remove(id);
+        if (request == null) {
+            return null;
+        }
+
+        idsLock.lock();
+        try {
+            ids.remove(id);
+        } finally {
+            idsLock.unlock();
+        }
+        requestorIndex.computeIfPresent(request.getRequestor().getId(), (requestorId, requests) -> {
+            requests.remove(request);
+            return requests.isEmpty() ? null : requests;
+        });
+        return request;
+    }
+
+    private static void writeRequest(DataOutput output, ItemRequest request) throws IOException {
+        output.writeLong(request.getId());
+        output.writeLong(request.getRequestor().getId());
+        Records.writeString(output, request.getDescription());
+        Records.writeString(output, request.getCreated().toString());
+    }
+}
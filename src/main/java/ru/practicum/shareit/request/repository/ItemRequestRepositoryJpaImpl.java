@@ -0,0 +1,55 @@
+package ru.practicum.shareit.request.repository;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@ConditionalOnProperty(name = "shareit.storage", havingValue = "jpa")
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class ItemRequestRepositoryJpaImpl implements ItemRequestRepository {
+    private final ItemRequestJpaRepository itemRequestJpaRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public ItemRequest create(ItemRequest request) {
+        return itemRequestJpaRepository.save(request);
+    }
+
+    @Override
+    public Optional<ItemRequest> findById(Long id) {
+        return itemRequestJpaRepository.findById(id);
+    }
+
+    @Override
+    public List<ItemRequest> findAllByRequestorId(Long requestorId) {
+        return itemRequestJpaRepository.findAllByRequestorIdOrderByCreatedDescIdDesc(requestorId);
+    }
+
+    @Override
+    public List<ItemRequest> findAllExceptRequestor(Long requestorId, int from, int size) {
+        return entityManager.createQuery("select r from ItemRequest r where r.requestor.id <> :requestorId " +
+                        "order by r.created desc, r.id desc", ItemRequest.class)
+                .setParameter("requestorId", requestorId)
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByRequestorId(Long requestorId) {
+        itemRequestJpaRepository.deleteAllByRequestorId(requestorId);
+    }
+}
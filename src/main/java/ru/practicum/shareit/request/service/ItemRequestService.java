@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestResponseDto create(Long requestorId, ItemRequestDto itemRequestDto);
+
+    /**
+     * The user's own requests with their answers, newest first.
+     */
+    List<ItemRequestResponseDto> findOwn(Long requestorId);
+
+    /**
+     * Requests of other users with their answers, newest first, skipping the first {@code from}.
+     */
+    List<ItemRequestResponseDto> findAll(Long userId, int from, int size);
+
+    ItemRequestResponseDto findById(Long userId, Long requestId);
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Timed(MetricNames.SERVICE_TIMER)
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserService userService;
+    private final ItemRequestMapper itemRequestMapper;
+
+    @Override
+    public ItemRequestResponseDto create(Long requestorId, ItemRequestDto itemRequestDto) {
+        ItemRequest request = itemRequestMapper.toItemRequest(itemRequestDto);
+        request.setRequestor(userService.userExists(requestorId));
+        request.setCreated(LocalDateTime.now());
+        return itemRequestMapper.toResponseDto(itemRequestRepository.create(request), List.of());
+    }
+
+    @Override
+    public List<ItemRequestResponseDto> findOwn(Long requestorId) {
+        userService.userExists(requestorId);
+        return withItems(itemRequestRepository.findAllByRequestorId(requestorId));
+    }
+
+    @Override
+    public List<ItemRequestResponseDto> findAll(Long userId, int from, int size) {
+        userService.userExists(userId);
+        return withItems(itemRequestRepository.findAllExceptRequestor(userId, from, size));
+    }
+
+    @Override
+    public ItemRequestResponseDto findById(Long userId, Long requestId) {
+        userService.userExists(userId);
+        ItemRequest request = itemRequestRepository.findById(requestId)
+                .orElseThrow(() -> new ItemRequestNotFoundException(requestId));
+        return withItems(List.of(request)).getFirst();
+    }
+
+    /**
+     * Attaches the answers to a page of requests with one lookup for the whole page.
+     */
+    private List<ItemRequestResponseDto> withItems(List<ItemRequest> requests) {
+        Map<Long, List<Item>> items = itemRepository.findAllByRequestIds(requests.stream()
+                .map(ItemRequest::getId)
+                .toList());
+        return requests.stream()
+                .map(request -> itemRequestMapper.toResponseDto(request,
+                        items.getOrDefault(request.getId(), List.of())))
+                .toList();
+    }
+}
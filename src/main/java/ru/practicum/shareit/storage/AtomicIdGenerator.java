@@ -0,0 +1,33 @@
+package ru.practicum.shareit.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AtomicIdGenerator implements IdGenerator {
+    private final AtomicLong lastId;
+
+    public AtomicIdGenerator() {
+        this(0);
+    }
+
+    public AtomicIdGenerator(long lastId) {
+        this.lastId = new AtomicLong(lastId);
+    }
+
+    @Override
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    @Override
+    public long reserve(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + count);
+        }
+        return lastId.getAndAdd(count) + 1;
+    }
+
+    @Override
+    public void advanceTo(long id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+}
@@ -0,0 +1,370 @@
+package ru.practicum.shareit.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link DurableStore}s on disk: restores them from the latest snapshot and the log written after it,
+ * then logs their changes to a {@link WriteAheadLog} and periodically replaces snapshot and old log segments
+ * with a fresh snapshot. Snapshots are fuzzy: they are written while the stores keep changing, and restoring
+ * replays every record logged after the checkpoint taken before the snapshot started.
+ * The snapshot written on shutdown is exact and comes with an image of the store indexes, which the next start
+ * loads instead of rebuilding the indexes record by record.
+ * A running manager holds a lock on the directory, so a second process cannot replay or rotate the same log.
+ */
+@Slf4j
+public class DurabilityManager implements AutoCloseable {
+    private static final int SNAPSHOT_MAGIC = 0x53485253;
+    private static final int INDEX_IMAGE_MAGIC = 0x53485249;
+    private static final int FORMAT_VERSION = 1;
+    // Images of version 1 had no grams of unavailable items in the item search index
+    private static final int INDEX_IMAGE_VERSION = 2;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{20})\\.snap");
+    private static final Pattern INDEX_IMAGE_NAME = Pattern.compile("index-(\\d{20})\\.img");
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d{20})\\.log");
+    private static final String LOCK_NAME = "durability.lock";
+
+    private final Path directory;
+    private final List<DurableStore> stores;
+    private final Map<Byte, DurableStore> storesById;
+    private final Lock snapshotLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+    private FileChannel lockChannel;
+    private WriteAheadLog journal;
+
+    public DurabilityManager(Path directory, List<DurableStore> stores) {
+        this.directory = directory;
+        this.stores = stores.stream()
+                .sorted(Comparator.comparingInt(DurableStore::storeId))
+                .toList();
+        this.storesById = stores.stream()
+                .collect(Collectors.toMap(DurableStore::storeId, Function.identity()));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("snapshot-writer").daemon().factory());
+    }
+
+    /**
+     * Locks the directory, restores the stores, attaches the journal to them
+     * and schedules snapshots every {@code snapshotInterval}.
+     */
+    public void start(Duration snapshotInterval) throws IOException {
+        Files.createDirectories(directory);
+        lockDirectory();
+        long started = System.nanoTime();
+
+        long snapshotLsn = loadSnapshot();
+        long lastLsn = snapshotLsn;
+        long lastSegment = 0;
+        int replayed = 0;
+        List<Path> segments = files(SEGMENT_NAME);
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            lastSegment = number(segment, SEGMENT_NAME);
+            ByteBuffer buffer = map(segment);
+            Records.Record record;
+            while ((record = Records.read(buffer)) != null) {
+                if (record.lsn() > snapshotLsn) {
+                    apply(record);
+                    replayed++;
+                }
+                lastLsn = Math.max(lastLsn, record.lsn());
+            }
+            if (buffer.hasRemaining()) {
+                if (i < segments.size() - 1) {
+                    throw new IOException("Corrupted write-ahead log segment " + segment);
+                }
+                log.warn("Discarding {} bytes of an incomplete record at the end of {}", buffer.remaining(), segment);
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    channel.truncate(buffer.position());
+                }
+            }
+        }
+
+        journal = new WriteAheadLog(directory, lastSegment + 1, lastLsn);
+        stores.forEach(store -> store.attach(journal));
+        log.info("Restored stores up to lsn {} from snapshot {} and {} log records in {} ms",
+                lastLsn, snapshotLsn, replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        long period = snapshotInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a snapshot of all stores and removes the snapshot and log segments it supersedes.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            writeSnapshot();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Stops scheduled snapshots, writes a final one together with the index image so that the next start
+     * has neither log to replay nor indexes to rebuild, and closes the journal.
+     * Expected to run once the application has stopped serving requests.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        if (journal == null) {
+            unlockDirectory();
+            return;
+        }
+        snapshotLock.lock();
+        try {
+            writeIndexImage(writeSnapshot());
+        } finally {
+            snapshotLock.unlock();
+            try {
+                journal.close();
+            } finally {
+                unlockDirectory();
+            }
+        }
+    }
+
+    /**
+     * Stops the way a crash would: without the final snapshot, leaving the log to be replayed by the next start.
+     */
+    void halt() throws IOException {
+        scheduler.shutdownNow();
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } finally {
+            unlockDirectory();
+        }
+    }
+
+    private void lockDirectory() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Durability directory " + directory + " is in use by another manager");
+        }
+        lockChannel = channel;
+    }
+
+    private void unlockDirectory() throws IOException {
+        if (lockChannel != null) {
+            // Closing the channel releases the lock
+            lockChannel.close();
+            lockChannel = null;
+        }
+    }
+
+    private long writeSnapshot() throws IOException {
+        WriteAheadLog.Checkpoint checkpoint = journal.rotate();
+        Path temporary = writeStores(SNAPSHOT_MAGIC, FORMAT_VERSION, checkpoint.lsn(), DurableStore::snapshot);
+        Path snapshot = directory.resolve("snapshot-%020d.snap".formatted(checkpoint.lsn()));
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path old : files(SNAPSHOT_NAME)) {
+            if (!old.equals(snapshot)) {
+                Files.delete(old);
+            }
+        }
+        for (Path image : files(INDEX_IMAGE_NAME)) {
+            if (number(image, INDEX_IMAGE_NAME) != checkpoint.lsn()) {
+                Files.delete(image);
+            }
+        }
+        for (Path segment : files(SEGMENT_NAME)) {
+            if (number(segment, SEGMENT_NAME) < checkpoint.segment()) {
+                Files.delete(segment);
+            }
+        }
+        log.info("Wrote snapshot at lsn {}", checkpoint.lsn());
+        return checkpoint.lsn();
+    }
+
+    private void writeIndexImage(long lsn) throws IOException {
+        Path temporary = writeStores(INDEX_IMAGE_MAGIC, INDEX_IMAGE_VERSION, lsn, DurableStore::writeIndexImage);
+        if (journal.lastLsn() != lsn) {
+            // A write slipped in after the snapshot, so the indexes may not match it
+            Files.delete(temporary);
+            log.warn("Skipped the index image: stores changed after the snapshot at lsn {}", lsn);
+            return;
+        }
+        Files.move(temporary, directory.resolve("index-%020d.img".formatted(lsn)),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.info("Wrote index image at lsn {}", lsn);
+    }
+
+    /**
+     * Writes what {@code writer} produces for every store, sealed with sequence number {@code lsn},
+     * into a temporary file forced to disk, and returns the file.
+     */
+    private Path writeStores(int magic, int version, long lsn, StoreWriter writer) throws IOException {
+        Path temporary = directory.resolve("stores.tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+            DataOutputStream header = new DataOutputStream(output);
+            header.writeInt(magic);
+            header.writeInt(version);
+            header.writeLong(lsn);
+            for (DurableStore store : stores) {
+                writer.write(store, (operation, payload) -> {
+                    byte[] record = Records.encode(store.storeId(), operation, payload);
+                    Records.setLsn(record, lsn);
+                    Records.seal(record);
+                    output.write(record);
+                });
+            }
+            output.flush();
+            channel.force(true);
+        }
+        return temporary;
+    }
+
+    private long loadSnapshot() throws IOException {
+        Optional<Path> latest = files(SNAPSHOT_NAME).stream().reduce((first, second) -> second);
+        if (latest.isEmpty()) {
+            return 0;
+        }
+
+        ByteBuffer buffer = map(latest.get());
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != SNAPSHOT_MAGIC
+                || buffer.getInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot " + latest.get());
+        }
+        long lsn = buffer.getLong();
+        Set<Byte> indexed = loadIndexImage(lsn);
+        Records.Record record;
+        while ((record = Records.read(buffer)) != null) {
+            if (indexed.contains(record.store())) {
+                storeOf(record).restore(record.operation(), record.input());
+            } else {
+                storeOf(record).replay(record.operation(), record.input());
+            }
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Corrupted snapshot " + latest.get());
+        }
+        return lsn;
+    }
+
+    /**
+     * Loads the index image written together with the snapshot at {@code lsn} and returns the ids
+     * of the stores it covers. A missing or damaged image covers nothing, and those indexes are rebuilt.
+     */
+    private Set<Byte> loadIndexImage(long lsn) throws IOException {
+        Path image = directory.resolve("index-%020d.img".formatted(lsn));
+        if (!Files.exists(image)) {
+            return Set.of();
+        }
+
+        ByteBuffer buffer = map(image);
+        boolean valid = buffer.remaining() >= HEADER_SIZE && buffer.getInt() == INDEX_IMAGE_MAGIC
+                && buffer.getInt() == INDEX_IMAGE_VERSION && buffer.getLong() == lsn;
+        List<Records.Record> records = new ArrayList<>();
+        Records.Record record;
+        while (valid && (record = Records.read(buffer)) != null) {
+            records.add(record);
+        }
+        if (!valid || buffer.hasRemaining()) {
+            log.warn("Ignoring damaged index image {}, indexes are rebuilt from the snapshot", image);
+            return Set.of();
+        }
+
+        Set<Byte> indexed = new HashSet<>();
+        for (Records.Record imageRecord : records) {
+            storeOf(imageRecord).loadIndexImage(imageRecord.operation(), imageRecord.input());
+            indexed.add(imageRecord.store());
+        }
+        log.info("Loaded indexes of stores {} from {}", indexed, image);
+        return indexed;
+    }
+
+    private void apply(Records.Record record) throws IOException {
+        storeOf(record).replay(record.operation(), record.input());
+    }
+
+    private DurableStore storeOf(Records.Record record) throws IOException {
+        DurableStore store = storesById.get(record.store());
+        if (store == null) {
+            throw new IOException("Record of unknown store " + record.store() + " at lsn " + record.lsn());
+        }
+        return store;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot failed, the log keeps growing until the next one succeeds", e);
+        }
+    }
+
+    private List<Path> files(Pattern name) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> name.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long number(Path file, Pattern name) {
+        Matcher matcher = name.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(file.toString());
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @FunctionalInterface
+    private interface StoreWriter {
+        void write(DurableStore store, DurableStore.RecordSink sink) throws IOException;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.storage;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * In-memory store whose content can be rebuilt from snapshots and the {@link Journal}.
+ * Records carry the full state of an entity or its deletion, so applying them again is harmless.
+ */
+public interface DurableStore {
+    /**
+     * Tags the records of this store; snapshots write and restore stores in ascending order of their ids.
+     */
+    byte storeId();
+
+    /**
+     * Starts logging every change to {@code journal}.
+     */
+    void attach(Journal journal);
+
+    /**
+     * Applies a record written by this store, bypassing the checks of regular writes.
+     */
+    void replay(byte operation, DataInput input) throws IOException;
+
+    /**
+     * Writes the current content as records that {@link #replay} turns back into it.
+     */
+    void snapshot(RecordSink sink) throws IOException;
+
+    /**
+     * Writes indexes derived from the content, so that a restart can load them instead of rebuilding them.
+     * Called only while the store does not change; a store whose indexes are cheap to rebuild writes nothing.
+     */
+    default void writeIndexImage(RecordSink sink) throws IOException {
+    }
+
+    /**
+     * Loads a record written by {@link #writeIndexImage}. The records of the snapshot taken together with
+     * the image are then passed to {@link #restore} instead of {@link #replay}.
+     */
+    default void loadIndexImage(byte operation, DataInput input) throws IOException {
+        throw new IOException("Store " + storeId() + " does not write an index image");
+    }
+
+    /**
+     * Applies a snapshot record whose indexes were already loaded from the index image.
+     */
+    default void restore(byte operation, DataInput input) throws IOException {
+        replay(operation, input);
+    }
+
+    @FunctionalInterface
+    interface RecordSink {
+        void write(byte operation, Journal.RecordWriter payload) throws IOException;
+    }
+}
@@ -0,0 +1,403 @@
+package ru.practicum.shareit.storage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compressed set of non-negative ids, laid out like a Roaring bitmap: ids are split into chunks of
+ * {@value #CHUNK_SIZE} by their high bits, and a chunk keeps the low 16 bits of its ids in a sorted {@code char}
+ * array while it holds up to {@value #ARRAY_LIMIT} of them, or in a bitmap once it holds more.
+ * {@link #nextCommon} intersects sets by skipping from id to id, so it never visits a chunk that another set lacks.
+ * <p>
+ * Reads never block and may run concurrently with a change; changes must be serialized by the caller.
+ * Arrays are appended to in place and copied on any other change, so a reader never sees a half-shifted array.
+ */
+public class IdBitmap {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int ARRAY_LIMIT = 4096;
+    private static final Chunk[] NO_CHUNKS = {};
+
+    private volatile Chunk[] chunks = NO_CHUNKS;
+    private volatile int cardinality;
+
+    public boolean add(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id " + id);
+        }
+
+        Chunk[] current = chunks;
+        long key = id >>> 16;
+        int index = search(current, key);
+        if (index < 0) {
+            index = -index - 1;
+            Chunk[] grown = new Chunk[current.length + 1];
+            System.arraycopy(current, 0, grown, 0, index);
+            System.arraycopy(current, index, grown, index + 1, current.length - index);
+            grown[index] = new Chunk(key, ArrayContainer.of((char) id));
+            cardinality++;
+            chunks = grown;
+            return true;
+        }
+
+        Chunk chunk = current[index];
+        Container container = chunk.container;
+        if (container.contains((char) id)) {
+            return false;
+        }
+        chunk.container = container.add((char) id);
+        cardinality++;
+        return true;
+    }
+
+    public boolean remove(long id) {
+        Chunk[] current = chunks;
+        int index = id < 0 ? -1 : search(current, id >>> 16);
+        if (index < 0) {
+            return false;
+        }
+
+        Chunk chunk = current[index];
+        Container container = chunk.container;
+        if (!container.contains((char) id)) {
+            return false;
+        }
+        cardinality--;
+        if (container.cardinality() == 1) {
+            Chunk[] shrunk = new Chunk[current.length - 1];
+            System.arraycopy(current, 0, shrunk, 0, index);
+            System.arraycopy(current, index + 1, shrunk, index, shrunk.length - index);
+            chunks = shrunk;
+        } else {
+            chunk.container = container.remove((char) id);
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        Chunk[] current = chunks;
+        int index = id < 0 ? -1 : search(current, id >>> 16);
+        return index >= 0 && current[index].container.contains((char) id);
+    }
+
+    /**
+     * Returns the smallest id of the set not less than {@code from}, or {@code -1} if there is none.
+     */
+    public long next(long from) {
+        long start = Math.max(from, 0);
+        Chunk[] current = chunks;
+        int index = search(current, start >>> 16);
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        for (; index < current.length; index++) {
+            Chunk chunk = current[index];
+            int low = chunk.key == start >>> 16 ? (char) start : 0;
+            int found = chunk.container.next(low);
+            if (found >= 0) {
+                return chunk.key << 16 | found;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of ids of the set less than {@code id}.
+     */
+    public int rank(long id) {
+        if (id <= 0) {
+            return 0;
+        }
+
+        int rank = 0;
+        long key = id >>> 16;
+        for (Chunk chunk : chunks) {
+            if (chunk.key > key) {
+                break;
+            }
+            Container container = chunk.container;
+            rank += chunk.key < key ? container.cardinality() : container.rank((char) id);
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the id with {@code rank} smaller ids in the set, or {@code -1} if the set is not that large.
+     * Whole chunks are skipped by their cardinality, so this costs one step per chunk rather than per id.
+     */
+    public long select(int rank) {
+        if (rank < 0) {
+            return -1;
+        }
+
+        int remaining = rank;
+        for (Chunk chunk : chunks) {
+            Container container = chunk.container;
+            int count = container.cardinality();
+            if (remaining < count) {
+                int found = container.select(remaining);
+                return found < 0 ? -1 : chunk.key << 16 | found;
+            }
+            remaining -= count;
+        }
+        return -1;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public long[] toArray() {
+        long[] ids = new long[cardinality];
+        int size = 0;
+        for (long id = next(0); id >= 0; id = next(id + 1)) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2 + 1);
+            }
+            ids[size++] = id;
+        }
+        return size == ids.length ? ids : Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Returns the smallest id not less than {@code from} contained in every one of {@code sets}, or {@code -1}.
+     * Passing the smallest set first saves steps.
+     */
+    public static long nextCommon(List<IdBitmap> sets, long from) {
+        long candidate = sets.getFirst().next(from);
+        int agreed = 1;
+        for (int index = 1; candidate >= 0 && agreed < sets.size(); index = (index + 1) % sets.size()) {
+            long next = sets.get(index).next(candidate);
+            if (next == candidate) {
+                agreed++;
+            } else {
+                candidate = next;
+                agreed = 1;
+            }
+        }
+        return candidate;
+    }
+
+    private static int search(Chunk[] chunks, long key) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = chunks[middle].key;
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static final class Chunk {
+        private final long key;
+        private volatile Container container;
+
+        Chunk(long key, Container container) {
+            this.key = key;
+            this.container = container;
+        }
+    }
+
+    /**
+     * Low bits of the ids of one chunk. {@code add} and {@code remove} return the container to publish instead,
+     * which is {@code this} when it was changed in place.
+     */
+    private interface Container {
+        boolean contains(char low);
+
+        /**
+         * Returns the smallest value not less than {@code from}, or {@code -1}.
+         */
+        int next(int from);
+
+        int cardinality();
+
+        /**
+         * Returns the number of values less than {@code low}.
+         */
+        int rank(char low);
+
+        /**
+         * Returns the value with {@code rank} smaller values, or {@code -1}.
+         */
+        int select(int rank);
+
+        Container add(char low);
+
+        Container remove(char low);
+    }
+
+    private static final class ArrayContainer implements Container {
+        private final char[] values;
+        private volatile int size;
+
+        private ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        static ArrayContainer of(char value) {
+            return new ArrayContainer(new char[] {value, 0, 0, 0}, 1);
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        public int next(int from) {
+            int count = size;
+            int index = Arrays.binarySearch(values, 0, count, (char) from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < count ? values[index] : -1;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public int rank(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            return index < 0 ? -index - 1 : index;
+        }
+
+        @Override
+        public int select(int rank) {
+            return rank < size ? values[rank] : -1;
+        }
+
+        @Override
+        public Container add(char low) {
+            int count = size;
+            if (count == ARRAY_LIMIT) {
+                return BitmapContainer.of(values, count).add(low);
+            }
+
+            int index = -Arrays.binarySearch(values, 0, count, low) - 1;
+            if (index == count && count < values.length) {
+                values[count] = low;
+                size = count + 1;
+                return this;
+            }
+
+            char[] copy = new char[count < values.length ? values.length : Math.min(count * 2, ARRAY_LIMIT)];
+            System.arraycopy(values, 0, copy, 0, index);
+            copy[index] = low;
+            System.arraycopy(values, index, copy, index + 1, count - index);
+            return new ArrayContainer(copy, count + 1);
+        }
+
+        @Override
+        public Container remove(char low) {
+            int count = size;
+            int index = Arrays.binarySearch(values, 0, count, low);
+            char[] copy = new char[values.length];
+            System.arraycopy(values, 0, copy, 0, index);
+            System.arraycopy(values, index + 1, copy, index, count - index - 1);
+            return new ArrayContainer(copy, count - 1);
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final AtomicLongArray words = new AtomicLongArray(CHUNK_SIZE / Long.SIZE);
+        private volatile int cardinality;
+
+        static BitmapContainer of(char[] values, int size) {
+            BitmapContainer container = new BitmapContainer();
+            for (int index = 0; index < size; index++) {
+                container.add(values[index]);
+            }
+            return container;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return (words.get(low >>> 6) & 1L << low) != 0;
+        }
+
+        @Override
+        public int next(int from) {
+            int index = from >>> 6;
+            long word = words.get(index) & -1L << from;
+            while (word == 0) {
+                if (++index == words.length()) {
+                    return -1;
+                }
+                word = words.get(index);
+            }
+            return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int rank(char low) {
+            int rank = 0;
+            for (int index = 0; index < low >>> 6; index++) {
+                rank += Long.bitCount(words.get(index));
+            }
+            return rank + Long.bitCount(words.get(low >>> 6) & (1L << low) - 1);
+        }
+
+        @Override
+        public int select(int rank) {
+            int remaining = rank;
+            for (int index = 0; index < words.length(); index++) {
+                long word = words.get(index);
+                int count = Long.bitCount(word);
+                if (remaining < count) {
+                    for (; remaining > 0; remaining--) {
+                        word &= word - 1;
+                    }
+                    return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+                }
+                remaining -= count;
+            }
+            return -1;
+        }
+
+        @Override
+        public Container add(char low) {
+            words.set(low >>> 6, words.get(low >>> 6) | 1L << low);
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char low) {
+            words.set(low >>> 6, words.get(low >>> 6) & ~(1L << low));
+            cardinality--;
+            // Half the limit, so that a chunk hovering around it is not converted back and forth
+            if (cardinality > ARRAY_LIMIT / 2) {
+                return this;
+            }
+
+            char[] values = new char[ARRAY_LIMIT];
+            int size = 0;
+            for (int value = next(0); value >= 0; value = value + 1 < CHUNK_SIZE ? next(value + 1) : -1) {
+                values[size++] = (char) value;
+            }
+            return new ArrayContainer(values, size);
+        }
+    }
+}
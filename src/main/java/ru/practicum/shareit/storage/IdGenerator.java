@@ -0,0 +1,15 @@
+package ru.practicum.shareit.storage;
+
+public interface IdGenerator {
+    long nextId();
+
+    /**
+     * Reserves {@code count} consecutive ids and returns the first of them.
+     */
+    long reserve(int count);
+
+    /**
+     * Makes sure ids up to {@code id} inclusive are never handed out, e.g. after restoring existing data.
+     */
+    void advanceTo(long id);
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.storage;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Append-only log of changes to in-memory stores.
+ * A change is appended while its entity is locked, so the log keeps the order in which changes of one entity
+ * were applied; {@link #sync} then waits, after the lock is released, until the change is on disk.
+ */
+public interface Journal {
+    Journal NONE = new Journal() {
+        @Override
+        public long append(byte store, byte operation, RecordWriter payload) {
+            return 0;
+        }
+
+        @Override
+        public void sync(long lsn) {
+        }
+    };
+
+    /**
+     * Queues a record and returns its log sequence number. The payload is serialized before this method returns.
+     */
+    long append(byte store, byte operation, RecordWriter payload);
+
+    /**
+     * Blocks until every record up to {@code lsn} inclusive is on disk.
+     */
+    void sync(long lsn);
+
+    @FunctionalInterface
+    interface RecordWriter {
+        void write(DataOutput output) throws IOException;
+    }
+}
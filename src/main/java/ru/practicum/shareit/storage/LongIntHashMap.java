@@ -0,0 +1,126 @@
+package ru.practicum.shareit.storage;
+
+/**
+ * Open-addressing map from positive {@code long} keys to {@code int} values, without boxing or entry objects.
+ * Not thread-safe. The table is never more than half full, so a lookup racing a writer always ends, though its
+ * result is only meaningful if the caller then checks that no write happened meanwhile.
+ */
+public class LongIntHashMap {
+    public static final int MISSING = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * Returns the value of {@code key}, or {@link #MISSING} if there is none.
+     */
+    public int get(long key) {
+        long[] keys = this.keys;
+        int[] values = this.values;
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            if (keys[i] == 0) {
+                return MISSING;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            if (keys[i] == 0) {
+                values[i] = value;
+                keys[i] = key;
+                size++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes {@code key} and returns its value, or {@link #MISSING} if there was none.
+     */
+    public int remove(long key) {
+        int mask = keys.length - 1;
+        int hole = slot(key, mask);
+        while (keys[hole] != key) {
+            if (keys[hole] == 0) {
+                return MISSING;
+            }
+            hole = (hole + 1) & mask;
+        }
+
+        int value = values[hole];
+        // Shifts later entries of the probe run back instead of leaving a tombstone
+        for (int i = (hole + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int home = slot(keys[i], mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = 0;
+        size--;
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        int[] newValues = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j], mask);
+                while (newKeys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                newKeys[i] = oldKeys[j];
+                newValues[i] = oldValues[j];
+            }
+        }
+        values = newValues;
+        keys = newKeys;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
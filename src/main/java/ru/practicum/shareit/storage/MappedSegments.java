@@ -0,0 +1,214 @@
+package ru.practicum.shareit.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Off-heap space made of memory-mapped segment files in a private temporary directory. Records are appended and
+ * never changed afterwards, so a record can be read without locks for as long as its buffer is referenced, even
+ * after it was freed or its segment released. Addresses combine the segment number and the offset of the record.
+ * <p>
+ * Allocation, freeing and release must be serialized by the caller; {@link #buffer} may be called concurrently.
+ */
+public class MappedSegments implements Closeable {
+    private static final int LENGTH_BYTES = 4;
+    private static final int ALIGNMENT = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private volatile ByteBuffer[] segments = new ByteBuffer[8];
+    private Path[] files = new Path[8];
+    private int[] used = new int[8];
+    private int[] freed = new int[8];
+    private int active = -1;
+    private long mappedFiles;
+    private volatile long mappedBytes;
+
+    /**
+     * Creates the segments in a new directory inside {@code parent}, or inside the system temporary directory
+     * if {@code parent} is {@code null}.
+     */
+    public MappedSegments(Path parent, int segmentSize) throws IOException {
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.directory = parent == null
+                ? Files.createTempDirectory("shareit-segments")
+                : Files.createTempDirectory(parent, "shareit-segments");
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Reserves {@code length} bytes and returns the address to write them at, see {@link #offset}.
+     */
+    public long allocate(int length) {
+        int size = align(LENGTH_BYTES + length);
+        if (active < 0 || used[active] + size > segments[active].capacity()) {
+            active = map(Math.max(segmentSize, size));
+        }
+
+        ByteBuffer buffer = segments[active];
+        int position = used[active];
+        buffer.putInt(position, length);
+        used[active] += size;
+        return address(active, position + LENGTH_BYTES);
+    }
+
+    /**
+     * Marks the record at {@code address} as free; its bytes stay readable until the segment is released.
+     */
+    public void free(long address) {
+        int segment = segment(address);
+        int offset = offset(address);
+        ByteBuffer buffer = segments[segment];
+        int length = buffer.getInt(offset - LENGTH_BYTES);
+        if (length >= 0) {
+            buffer.putInt(offset - LENGTH_BYTES, -length - 1);
+            freed[segment] += align(LENGTH_BYTES + length);
+        }
+    }
+
+    /**
+     * Copies the record at {@code address} to newly allocated space, frees the original and returns the new address.
+     */
+    public long move(long address) {
+        int length = length(address);
+        long moved = allocate(length);
+        buffer(moved).put(offset(moved), buffer(address), offset(address), length);
+        free(address);
+        return moved;
+    }
+
+    /**
+     * Returns the segment holding {@code address}, or {@code null} if it has been released.
+     */
+    public ByteBuffer buffer(long address) {
+        ByteBuffer[] current = segments;
+        int segment = segment(address);
+        return segment < current.length ? current[segment] : null;
+    }
+
+    public int length(long address) {
+        return buffer(address).getInt(offset(address) - LENGTH_BYTES);
+    }
+
+    /**
+     * Returns a segment other than the one being appended to with at least half of its space freed, or {@code -1}.
+     */
+    public int sparseSegment() {
+        for (int segment = 0; segment < segments.length; segment++) {
+            if (segment != active && segments[segment] != null && freed[segment] * 2 >= used[segment]) {
+                return segment;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Passes the addresses of the records of {@code segment} that are not freed to {@code action}.
+     */
+    public void forEachRecord(int segment, LongConsumer action) {
+        ByteBuffer buffer = segments[segment];
+        int position = 0;
+        while (position < used[segment]) {
+            int length = buffer.getInt(position);
+            if (length >= 0) {
+                action.accept(address(segment, position + LENGTH_BYTES));
+            } else {
+                length = -length - 1;
+            }
+            position += align(LENGTH_BYTES + length);
+        }
+    }
+
+    /**
+     * Drops the segment; the memory is unmapped once buffers handed out before are no longer referenced.
+     */
+    public void release(int segment) {
+        ByteBuffer[] current = segments.clone();
+        mappedBytes -= current[segment].capacity();
+        current[segment] = null;
+        used[segment] = 0;
+        freed[segment] = 0;
+        segments = current;
+        delete(files[segment]);
+        files[segment] = null;
+    }
+
+    public long mappedBytes() {
+        return mappedBytes;
+    }
+
+    @Override
+    public void close() {
+        for (int segment = 0; segment < segments.length; segment++) {
+            if (segments[segment] != null) {
+                release(segment);
+            }
+        }
+        delete(directory);
+    }
+
+    public static int offset(long address) {
+        return (int) address;
+    }
+
+    private static int segment(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static long address(int segment, int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    private static int align(int size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private int map(int capacity) {
+        int segment = 0;
+        ByteBuffer[] current = segments;
+        while (segment < current.length && current[segment] != null) {
+            segment++;
+        }
+        if (segment == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            files = Arrays.copyOf(files, current.length);
+            used = Arrays.copyOf(used, current.length);
+            freed = Arrays.copyOf(freed, current.length);
+        } else {
+            current = current.clone();
+        }
+
+        Path file = directory.resolve("segment-" + mappedFiles++);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            current[segment] = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map a storage segment in " + directory, e);
+        }
+        files[segment] = file;
+        used[segment] = 0;
+        freed[segment] = 0;
+        mappedBytes += capacity;
+        segments = current;
+        return segment;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // still mapped on platforms that do not allow deleting mapped files
+            file.toFile().deleteOnExit();
+        }
+    }
+}
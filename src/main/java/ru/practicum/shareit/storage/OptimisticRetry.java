@@ -0,0 +1,52 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write again when its write loses a version check to a concurrent one.
+ * Attempts are spread out by a randomized, growing pause; once they run out, the conflict reaches the client.
+ */
+public final class OptimisticRetry {
+    public static final int MAX_ATTEMPTS = 5;
+    private static final long MAX_BACKOFF_MICROS = 1_000;
+
+    private OptimisticRetry() {
+    }
+
+    /**
+     * Returns the result of the first attempt that does not conflict. An attempt has to read the entity anew.
+     */
+    public static <T> T run(Supplier<T> attempt) {
+        return run(attempt, () -> {
+        });
+    }
+
+    /**
+     * Same as {@link #run(Supplier)}, calling {@code onConflict} after every lost attempt, e.g. to drop a cached copy
+     * the attempt read the entity from.
+     */
+    public static <T> T run(Supplier<T> attempt, Runnable onConflict) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (VersionConflictException e) {
+                onConflict.run();
+                if (i == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            } catch (OptimisticLockingFailureException e) {
+                onConflict.run();
+                if (i == MAX_ATTEMPTS) {
+                    throw new VersionConflictException("The entity was changed concurrently, try again", e);
+                }
+            }
+            long backoff = Math.min(MAX_BACKOFF_MICROS, 50L << i);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ThreadLocalRandom.current().nextLong(backoff)));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout shared by the journal and snapshots: {@code [length:int][crc32c:int][lsn:long][store:byte]
+ * [operation:byte][payload]}, where length and checksum cover everything after the checksum.
+ */
+public final class Records {
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int LSN_OFFSET = HEADER_SIZE;
+    private static final int BODY_HEADER_SIZE = Long.BYTES + 2;
+
+    private Records() {
+    }
+
+    public static void writeString(DataOutput output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    public static String readString(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeNullableLong(DataOutput output, Long value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeLong(value);
+        }
+    }
+
+    public static Long readNullableLong(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readLong() : null;
+    }
+
+    /**
+     * Serializes a record without its sequence number and checksum, which are filled in later.
+     */
+    static byte[] encode(byte store, byte operation, Journal.RecordWriter payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(0);
+            output.writeInt(0);
+            output.writeLong(0);
+            output.writeByte(store);
+            output.writeByte(operation);
+            payload.write(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static void setLsn(byte[] record, long lsn) {
+        ByteBuffer.wrap(record).putLong(LSN_OFFSET, lsn);
+    }
+
+    /**
+     * Fills in the length and checksum; the record must not change afterwards.
+     */
+    static void seal(byte[] record) {
+        int length = record.length - HEADER_SIZE;
+        CRC32C checksum = new CRC32C();
+        checksum.update(record, HEADER_SIZE, length);
+        ByteBuffer.wrap(record).putInt(0, length).putInt(Integer.BYTES, (int) checksum.getValue());
+    }
+
+    /**
+     * Reads the record at the buffer position and moves past it, or returns {@code null} without moving
+     * if the rest of the buffer does not start with a whole record with a valid checksum, e.g. after a torn write.
+     */
+    static Record read(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE + BODY_HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length < BODY_HEADER_SIZE || length > buffer.remaining() - HEADER_SIZE) {
+            return null;
+        }
+
+        ByteBuffer body = buffer.slice(start + HEADER_SIZE, length);
+        CRC32C checksum = new CRC32C();
+        checksum.update(body.duplicate());
+        if ((int) checksum.getValue() != buffer.getInt(start + Integer.BYTES)) {
+            return null;
+        }
+
+        buffer.position(start + HEADER_SIZE + length);
+        return new Record(body.getLong(0), body.get(Long.BYTES), body.get(Long.BYTES + 1),
+                body.slice(BODY_HEADER_SIZE, length - BODY_HEADER_SIZE));
+    }
+
+    record Record(long lsn, byte store, byte operation, ByteBuffer payload) {
+        DataInput input() {
+            return new DataInputStream(new ByteBufferInputStream(payload.duplicate()));
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
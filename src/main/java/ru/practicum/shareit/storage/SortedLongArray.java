@@ -0,0 +1,64 @@
+package ru.practicum.shareit.storage;
+
+import java.util.Arrays;
+
+/**
+ * Ascending set of {@code long} values in one growable array, for short id lists kept per key.
+ * Appending a value larger than all others, the usual case for new ids, takes amortized constant time.
+ * Not thread-safe.
+ */
+public class SortedLongArray {
+    private long[] values = new long[4];
+    private int size;
+
+    public boolean add(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return true;
+    }
+
+    public boolean remove(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    public long get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the index of the first value not less than {@code from}; {@link #size()} if there is none.
+     */
+    public int ceilingIndex(long from) {
+        int index = Arrays.binarySearch(values, 0, size, from);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.storage;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by entity ids, so writers of different entities rarely contend.
+ */
+public class StripedLock {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final Lock[] stripes;
+    private final int mask;
+
+    public StripedLock() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public StripedLock(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Lock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forKey(Object key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues increasing version stamps for the entities of one in-memory collection; the latest stamp is the version
+ * of the collection itself. Stamps start from the wall clock, so a restarted process never hands out a stamp
+ * that a client may still hold from the previous one.
+ */
+public class VersionClock {
+    private static final long STAMPS_PER_MILLI = 1_000;
+
+    private final AtomicLong last = new AtomicLong(System.currentTimeMillis() * STAMPS_PER_MILLI);
+
+    public long next() {
+        return last.incrementAndGet();
+    }
+
+    public long last() {
+        return last.get();
+    }
+
+    /**
+     * Makes sure the following stamps are greater than {@code version}, e.g. one restored from disk.
+     */
+    public void advanceTo(long version) {
+        last.accumulateAndGet(version, Math::max);
+    }
+}
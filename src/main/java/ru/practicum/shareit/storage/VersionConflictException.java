@@ -0,0 +1,18 @@
+package ru.practicum.shareit.storage;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an entity is replaced with a copy of a version that is no longer the stored one.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String entity, Long id) {
+        super("%s with id = %d was changed concurrently, try again".formatted(entity, id));
+    }
+
+    public VersionConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
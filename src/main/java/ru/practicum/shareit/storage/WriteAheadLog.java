@@ -0,0 +1,231 @@
+package ru.practicum.shareit.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Journal} written to numbered segment files by a single writer thread with group commit:
+ * records appended while one batch is being forced to disk are written and forced together as the next batch,
+ * so one {@code fsync} covers every writer that was waiting for it.
+ */
+@Slf4j
+public class WriteAheadLog implements Journal, Closeable {
+    private final Path directory;
+    private final Lock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final Lock channelLock = new ReentrantLock();
+    private final Thread writer;
+
+    private List<byte[]> pending = new ArrayList<>();
+    private long lastLsn;
+    private long syncedLsn;
+    private IOException failure;
+    private boolean closed;
+
+    private FileChannel channel;
+    private long segment;
+
+    /**
+     * Starts a new segment {@code segment} in {@code directory}, continuing the sequence after {@code lastLsn}.
+     */
+    public WriteAheadLog(Path directory, long segment, long lastLsn) throws IOException {
+        this.directory = directory;
+        this.segment = segment;
+        this.lastLsn = lastLsn;
+        this.syncedLsn = lastLsn;
+        this.channel = open(segment);
+        this.writer = Thread.ofPlatform().name("wal-writer").daemon().start(this::writeLoop);
+    }
+
+    public static Path segmentPath(Path directory, long segment) {
+        return directory.resolve("wal-%020d.log".formatted(segment));
+    }
+
+    @Override
+    public long append(byte store, byte operation, RecordWriter payload) {
+        byte[] record = Records.encode(store, operation, payload);
+        lock.lock();
+        try {
+            checkWritable();
+            long lsn = ++lastLsn;
+            Records.setLsn(record, lsn);
+            pending.add(record);
+            appended.signal();
+            return lsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sync(long lsn) {
+        lock.lock();
+        try {
+            while (syncedLsn < lsn) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log is unavailable", failure);
+                }
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence number of the latest appended record, synced or not.
+     */
+    public long lastLsn() {
+        lock.lock();
+        try {
+            return lastLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Continues the log in a new segment. Every record written to older segments has a sequence number
+     * up to the returned checkpoint's; records after it only ever go to the new segment.
+     */
+    public Checkpoint rotate() throws IOException {
+        channelLock.lock();
+        try {
+            long boundary;
+            lock.lock();
+            try {
+                boundary = lastLsn;
+            } finally {
+                lock.unlock();
+            }
+
+            channel.force(true);
+            channel.close();
+            segment++;
+            channel = open(segment);
+            return new Checkpoint(boundary, segment);
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channelLock.lock();
+        try {
+            channel.close();
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<byte[]> batch;
+            long batchLsn;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                batchLsn = lastLsn;
+                pending = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                write(batch);
+            } catch (IOException e) {
+                log.error("Write-ahead log failed, further changes are rejected", e);
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error == null) {
+                    syncedLsn = batchLsn;
+                } else {
+                    failure = error;
+                }
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) {
+                return;
+            }
+        }
+    }
+
+    private void write(List<byte[]> batch) throws IOException {
+        int size = 0;
+        for (byte[] record : batch) {
+            size += record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : batch) {
+            Records.seal(record);
+            buffer.put(record);
+        }
+        buffer.flip();
+
+        channelLock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    private void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log is unavailable", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    private FileChannel open(long segment) throws IOException {
+        return FileChannel.open(segmentPath(directory, segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    public record Checkpoint(long lsn, long segment) {
+    }
+}
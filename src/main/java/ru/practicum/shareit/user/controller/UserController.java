@@ -1,5 +1,8 @@
 package ru.practicum.shareit.user.controller;
 
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -13,12 +16,18 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
+import ru.practicum.shareit.web.JsonBody;
+import ru.practicum.shareit.web.NdjsonWriter;
 
-import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -26,12 +35,25 @@ import java.util.Collection;
 @RequestMapping(path = "/users")
 public class UserController {
     private final UserService userService;
+    private final NdjsonWriter ndjsonWriter;
 
     @PostMapping
     public ResponseEntity<UserDto> createUser(@Validated({Create.class}) @RequestBody UserDto userDto) {
         return new ResponseEntity<>(userService.create(userDto), HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public BatchResult<UserDto> createUsers(@RequestParam(defaultValue = "false") boolean atomic,
+                                            @RequestBody @Size(max = BatchResult.MAX_SIZE) List<UserDto> userDtos) {
+        return userService.createUsers(userDtos, atomic);
+    }
+
+    @PatchMapping("/batch")
+    public BatchResult<UserDto> updateUsers(@RequestParam(defaultValue = "false") boolean atomic,
+                                            @RequestBody @Size(max = BatchResult.MAX_SIZE) List<UserDto> userDtos) {
+        return userService.updateUsers(userDtos, atomic);
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<UserDto> updateUser(@Validated({Update.class}) @PathVariable Long id,
                                               @RequestBody UserDto userDto) {
@@ -39,13 +61,23 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.findById(id));
+    public ResponseEntity<UserDto> getById(@PathVariable Long id, WebRequest request) {
+        return userService.findVersionedById(id).toResponse(request);
     }
 
     @GetMapping
-    public ResponseEntity<Collection<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.findAllUsers());
+    public ResponseEntity<JsonBody> getAllUsers(@RequestParam(defaultValue = "0")
+                                                @PositiveOrZero long from,
+                                                @RequestParam(required = false)
+                                                @Positive Integer size,
+                                                WebRequest request) {
+        // Without size the whole list is returned, as before paging was added, rather than a silently cut page
+        return userService.findAllUsersVersioned(from, size == null ? Integer.MAX_VALUE : size).toResponse(request);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAllUsers() {
+        return ndjsonWriter.stream(userService::exportAllUsers);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.user.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.web.JsonBody;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Writes users as {@link UserDto} JSON straight from the entities. Field names are encoded once.
+ */
+@Component
+public class UserJsonWriter {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString EMAIL = new SerializedString("email");
+
+    public JsonBody list(Collection<User> users) {
+        return generator -> {
+            generator.writeStartArray(users, users.size());
+            for (User user : users) {
+                write(generator, user);
+            }
+            generator.writeEndArray();
+        };
+    }
+
+    public void write(JsonGenerator generator, User user) throws IOException {
+        generator.writeStartObject(user);
+        generator.writeFieldName(ID);
+        writeNumber(generator, user.getId());
+        generator.writeFieldName(NAME);
+        generator.writeString(user.getName());
+        generator.writeFieldName(EMAIL);
+        generator.writeString(user.getEmail());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+}
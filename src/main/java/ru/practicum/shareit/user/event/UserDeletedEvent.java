@@ -0,0 +1,8 @@
+package ru.practicum.shareit.user.event;
+
+/**
+ * Published while a user is deleted, before the user and the user's requests are, so that the user's items go
+ * with them and the items answering the requests are unlinked from them.
+ */
+public record UserDeletedEvent(Long userId) {
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.user.event;
+
+/**
+ * Published after a user is changed, so that copies embedding the user, e.g. of the user's items, are dropped.
+ */
+public record UserUpdatedEvent(Long userId) {
+}
@@ -1,11 +1,16 @@
 package ru.practicum.shareit.user.exception;
 
+import lombok.Getter;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+@Getter
 @ResponseStatus(HttpStatus.CONFLICT)
 public class NonExistentEmailException extends RuntimeException {
+    private final String email;
+
     public NonExistentEmailException(final String email) {
         super("This email already exists" + email);
+        this.email = email;
     }
 }
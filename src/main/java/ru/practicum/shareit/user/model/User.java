@@ -5,7 +5,9 @@ import jakarta.persistence.Table;
 import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Column;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -22,7 +24,8 @@ import lombok.experimental.FieldDefaults;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     Long id;
 
     @Column(name = "name", nullable = false)
@@ -30,4 +33,15 @@ public class User {
 
     @Column(name = "email", nullable = false, unique = true)
     String email;
+
+    /**
+     * Changes with every update; the in-memory storage stamps it from a clock shared by all users.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    Long version;
+
+    public User(Long id, String name, String email) {
+        this(id, name, email, null);
+    }
 }
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.user.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface UserJpaRepository extends JpaRepository<User, Long> {
+    boolean existsByEmailIgnoreCase(String email);
+
+    boolean existsByEmailIgnoreCaseAndIdNot(String email, Long id);
+
+    /**
+     * Returns those of the lower-case {@code emails} that already belong to some user.
+     */
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    List<String> findTakenEmails(Collection<String> emails);
+
+    List<User> findAllByIdGreaterThanEqualOrderById(Long from, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<User> streamAllByOrderById();
+}
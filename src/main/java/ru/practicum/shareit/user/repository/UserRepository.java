@@ -1,18 +1,64 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.storage.VersionConflictException;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserRepository {
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#result.id")
     User create(User user);
 
+    /**
+     * Stores all users, allocating their ids as one block. Either every user is stored or, if any e-mail is taken,
+     * none is.
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
+    List<User> createAll(List<User> users);
+
+    /**
+     * Replaces the stored user with {@code user}, a changed copy that carries the version it was read with,
+     * and stamps a new version on it. Throws {@link VersionConflictException} if the user has changed since;
+     * a user without a version replaces the stored one unconditionally.
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#user.id")
     User update(User user);
 
     Collection<User> findAllUsers();
 
+    /**
+     * Returns up to {@code size} users with ids starting from {@code from}, ordered by id.
+     */
+    List<User> findAllUsers(long from, int size);
+
+    /**
+     * Passes all users to {@code action} one by one as they are read, without collecting them.
+     */
+    void forEachUser(Consumer<User> action);
+
+    @Cacheable(cacheNames = CacheConfig.USERS)
     Optional<User> findById(Long id);
 
+    /**
+     * Drops the cached copy of the user, so that the next read goes to the storage. Meant for an update that lost
+     * its version check: the copy it read may be older than the stored user.
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
+    default void evictCached(Long id) {
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     void delete(Long id);
+
+    /**
+     * Changes after every create, update or delete, once the change is visible to reads;
+     * {@code -1} if changes are not tracked, e.g. because other processes share the storage.
+     */
+    long collectionVersion();
 }
@@ -1,48 +1,186 @@
 package ru.practicum.shareit.user.repository;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.storage.AtomicIdGenerator;
+import ru.practicum.shareit.storage.DurableStore;
+import ru.practicum.shareit.storage.IdGenerator;
+import ru.practicum.shareit.storage.Journal;
+import ru.practicum.shareit.storage.Records;
+import ru.practicum.shareit.storage.StripedLock;
+import ru.practicum.shareit.storage.VersionConflictException;
+import ru.practicum.shareit.storage.VersionClock;
 import ru.practicum.shareit.user.exception.NonExistentEmailException;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 
-import java.util.Map;
-import java.util.HashMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Slf4j
 @Repository
-public class UserRepositoryImpl implements UserRepository {
-    private final Map<Long, User> storage = new HashMap<>();
+@ConditionalOnProperty(name = "shareit.storage", havingValue = "memory", matchIfMissing = true)
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class UserRepositoryImpl implements UserRepository, DurableStore, MeterBinder {
+    public static final byte STORE_ID = 1;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final NavigableMap<Long, User> storage = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> emailIndex = new ConcurrentHashMap<>();
+    private final StripedLock locks = new StripedLock();
+    private final IdGenerator idGenerator;
+    private final VersionClock userVersions = new VersionClock();
+    private final VersionClock collectionVersion = new VersionClock();
+    private volatile Journal journal = Journal.NONE;
+
+    public UserRepositoryImpl() {
+        this(new AtomicIdGenerator());
+    }
+
+    public UserRepositoryImpl(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
 
     @Override
     public User create(User user) {
-        if (validateEmail(user.getId(), user.getEmail())) {
+        long id;
+        do {
+            id = idGenerator.nextId();
+        } while (storage.containsKey(id));
+
+        if (emailIndex.putIfAbsent(normalizeEmail(user.getEmail()), id) != null) {
             throw new NonExistentEmailException(user.getEmail());
         }
-        user.setId(getNextId());
-        storage.put(user.getId(), user);
+        user.setId(id);
+        user.setVersion(userVersions.next());
+        long lsn = store(user);
+        collectionVersion.next();
+        journal.sync(lsn);
         return user;
     }
 
     @Override
-    public User update(User user) {
-        if (validateEmail(user.getId(), user.getEmail())) {
-            throw new NonExistentEmailException(user.getEmail());
+    public List<User> createAll(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+
+        long id = idGenerator.reserve(users.size());
+        List<String> claimed = new ArrayList<>(users.size());
+        for (User user : users) {
+            while (storage.containsKey(id)) {
+                id = idGenerator.nextId();
+            }
+            user.setId(id++);
+            user.setVersion(userVersions.next());
+
+            String email = normalizeEmail(user.getEmail());
+            if (emailIndex.putIfAbsent(email, user.getId()) != null) {
+                for (int i = 0; i < claimed.size(); i++) {
+                    emailIndex.remove(claimed.get(i), users.get(i).getId());
+                }
+                throw new NonExistentEmailException(user.getEmail());
+            }
+            claimed.add(email);
+        }
+
+        long lsn = 0;
+        for (User user : users) {
+            lsn = store(user);
         }
+        collectionVersion.next();
+        journal.sync(lsn);
+        return users;
+    }
 
-        storage.put(user.getId(), user);
+    @Override
+    public User update(User user) {
+        long lsn;
+        Lock lock = locks.forKey(user.getId());
+        lock.lock();
+        try {
+            User current = storage.get(user.getId());
+            if (current == null) {
+                throw new UserNotFoundException(user.getId());
+            }
+            if (user.getVersion() != null && !user.getVersion().equals(current.getVersion())) {
+                throw new VersionConflictException("User", user.getId());
+            }
+
+            String oldEmail = normalizeEmail(current.getEmail());
+            String newEmail = normalizeEmail(user.getEmail());
+            if (!newEmail.equals(oldEmail)) {
+                Long emailOwner = emailIndex.putIfAbsent(newEmail, user.getId());
+                if (emailOwner != null && !emailOwner.equals(user.getId())) {
+                    throw new NonExistentEmailException(user.getEmail());
+                }
+            }
+
+            user.setVersion(userVersions.next());
+            storage.put(user.getId(), user);
+            if (!newEmail.equals(oldEmail)) {
+                emailIndex.remove(oldEmail, user.getId());
+            }
+            lsn = log(user);
+        } finally {
+            lock.unlock();
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
         return user;
     }
 
     @Override
     public void delete(Long id) {
-        storage.remove(id);
+        long lsn = 0;
+        Lock lock = locks.forKey(id);
+        lock.lock();
+        try {
+            if (remove(id) != null) {
+                lsn = journal.append(STORE_ID, DELETE, output -> output.writeLong(id));
+            }
+        } finally {
+            lock.unlock();
+        }
+        collectionVersion.next();
+        journal.sync(lsn);
     }
 
     @Override
     public Collection<User> findAllUsers() {
-        return storage.values();
+        return List.copyOf(storage.values());
+    }
+
+    @Override
+    public List<User> findAllUsers(long from, int size) {
+        return storage.tailMap(from, true).values().stream()
+                .limit(size)
+                .toList();
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        storage.values().forEach(action);
     }
 
     @Override
@@ -50,17 +188,95 @@ public class UserRepositoryImpl implements UserRepository {
         return Optional.ofNullable(storage.get(id));
     }
 
+    @Override
+    public long collectionVersion() {
+        return collectionVersion.last();
+    }
+
     public boolean validateEmail(Long id, String email) {
-        return storage.values().stream()
-                .anyMatch(u -> !u.getId().equals(id) && u.getEmail().equalsIgnoreCase(email));
+        Long emailOwner = emailIndex.get(normalizeEmail(email));
+        return emailOwner != null && !emailOwner.equals(id);
+    }
+
+    /**
+     * Looks users up in the storage itself, bypassing the cache in front of {@link #findById}.
+     */
+    public Function<Long, User> directLookup() {
+        return storage::get;
+    }
+
+    @Override
+    public byte storeId() {
+        return STORE_ID;
+    }
+
+    @Override
+    public void attach(Journal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void replay(byte operation, DataInput input) throws IOException {
+        long id = input.readLong();
+        idGenerator.advanceTo(id);
+        remove(id);
+        if (operation == PUT) {
+            User user = new User(id, Records.readString(input), Records.readString(input), input.readLong());
+            userVersions.advanceTo(user.getVersion());
+            storage.put(id, user);
+            emailIndex.put(normalizeEmail(user.getEmail()), id);
+        }
+    }
+
+    @Override
+    public void snapshot(RecordSink sink) throws IOException {
+        for (User user : storage.values()) {
+            sink.write(PUT, output -> writeUser(output, user));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Every stored user owns exactly one e-mail entry, and the skip list counts its size by a full traversal
+        Gauge.builder(MetricNames.STORAGE_SIZE, emailIndex, Map::size)
+                .tag("storage", "users")
+                .register(registry);
+    }
+
+    /**
+     * Stores and logs a newly created user, returning the sequence number to sync on.
+     */
+    private long store(User user) {
+        Lock lock = locks.forKey(user.getId());
+        lock.lock();
+        try {
+            storage.put(user.getId(), user);
+            return log(user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private User remove(Long id) {
+        User user = storage.remove(id);
+        if (user != null) {
+            emailIndex.remove(normalizeEmail(user.getEmail()), id);
+        }
+        return user;
+    }
+
+    private long log(User user) {
+        return journal.append(STORE_ID, PUT, output -> writeUser(output, user));
+    }
+
+    private static void writeUser(DataOutput output, User user) throws IOException {
+        output.writeLong(user.getId());
+        Records.writeString(output, user.getName());
+        Records.writeString(output, user.getEmail());
+        output.writeLong(user.getVersion());
     }
 
-    private long getNextId() {
-        long currentMaxId = storage.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+    private static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
     }
 }
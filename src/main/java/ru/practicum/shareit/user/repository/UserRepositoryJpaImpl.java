@@ -0,0 +1,118 @@
+package ru.practicum.shareit.user.repository;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.storage.VersionConflictException;
+import ru.practicum.shareit.user.exception.NonExistentEmailException;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@ConditionalOnProperty(name = "shareit.storage", havingValue = "jpa")
+@Timed(MetricNames.REPOSITORY_TIMER)
+public class UserRepositoryJpaImpl implements UserRepository {
+    private final UserJpaRepository userJpaRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public User create(User user) {
+        if (userJpaRepository.existsByEmailIgnoreCase(user.getEmail())) {
+            throw new NonExistentEmailException(user.getEmail());
+        }
+        return saveAndFlush(user);
+    }
+
+    @Override
+    @Transactional
+    public List<User> createAll(List<User> users) {
+        List<String> emails = users.stream()
+                .map(user -> user.getEmail().toLowerCase(Locale.ROOT))
+                .toList();
+        List<String> taken = userJpaRepository.findTakenEmails(emails);
+        if (!taken.isEmpty()) {
+            throw new NonExistentEmailException(taken.getFirst());
+        }
+
+        try {
+            return userJpaRepository.saveAllAndFlush(users);
+        } catch (DataIntegrityViolationException e) {
+            throw new NonExistentEmailException(String.join(", ", emails));
+        }
+    }
+
+    @Override
+    @Transactional
+    public User update(User user) {
+        if (!userJpaRepository.existsById(user.getId())) {
+            throw new UserNotFoundException(user.getId());
+        }
+        if (userJpaRepository.existsByEmailIgnoreCaseAndIdNot(user.getEmail(), user.getId())) {
+            throw new NonExistentEmailException(user.getEmail());
+        }
+        return saveAndFlush(user);
+    }
+
+    @Override
+    public Collection<User> findAllUsers() {
+        return userJpaRepository.findAll();
+    }
+
+    @Override
+    public List<User> findAllUsers(long from, int size) {
+        return userJpaRepository.findAllByIdGreaterThanEqualOrderById(from, Limit.of(size));
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        try (Stream<User> users = userJpaRepository.streamAllByOrderById()) {
+            users.forEach(user -> {
+                action.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return userJpaRepository.findById(id);
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        userJpaRepository.deleteById(id);
+    }
+
+    @Override
+    public long collectionVersion() {
+        return -1;
+    }
+
+    private User saveAndFlush(User user) {
+        try {
+            return userJpaRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new NonExistentEmailException(user.getEmail());
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException("User", user.getId());
+        }
+    }
+}
@@ -1,20 +1,52 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.batch.BatchResult;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.web.JsonBody;
+import ru.practicum.shareit.web.Versioned;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDto create(UserDto userDto);
 
     UserDto update(Long id, UserDto userDto);
 
-    Collection<UserDto> findAllUsers();
+    /**
+     * Creates the valid users and reports the invalid ones; if {@code atomic}, creates nothing unless all are valid.
+     */
+    BatchResult<UserDto> createUsers(List<UserDto> userDtos, boolean atomic);
+
+    /**
+     * Applies every patch that identifies an existing user; if {@code atomic}, applies all of them or none.
+     */
+    BatchResult<UserDto> updateUsers(List<UserDto> userDtos, boolean atomic);
+
+    Collection<UserDto> findAllUsers(long from, int size);
+
+    /**
+     * A page of users tagged with the version of the whole user collection.
+     */
+    Versioned<JsonBody> findAllUsersVersioned(long from, int size);
+
+    void exportAllUsers(Consumer<UserDto> action);
 
     UserDto findById(Long id);
 
+    /**
+     * The user tagged with its version.
+     */
+    Versioned<UserDto> findVersionedById(Long id);
+
     void delete(Long id);
 
     User userExists(Long id);
+
+    /**
+     * Changes after every change of any user; {@code -1} if changes are not tracked.
+     */
+    long collectionVersion();
 }
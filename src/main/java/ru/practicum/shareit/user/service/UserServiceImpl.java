@@ -1,23 +1,60 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.batch.BatchResult;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.batch.BatchValidator;
+import ru.practicum.shareit.config.MetricNames;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.storage.OptimisticRetry;
+import ru.practicum.shareit.storage.VersionConflictException;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserJsonWriter;
 import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.event.UserDeletedEvent;
+import ru.practicum.shareit.user.event.UserUpdatedEvent;
+import ru.practicum.shareit.user.exception.NonExistentEmailException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.validation.Create;
+import ru.practicum.shareit.validation.Update;
+import ru.practicum.shareit.web.JsonBody;
+import ru.practicum.shareit.web.Versioned;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(MetricNames.SERVICE_TIMER)
 public class UserServiceImpl implements UserService {
+    private static final String DUPLICATE_EMAIL = "email: duplicates the e-mail of another element of the batch";
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final BookingRepository bookingRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BatchValidator batchValidator;
+    private final UserJsonWriter userJsonWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDto create(UserDto userDto) {
@@ -26,38 +63,221 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto update(Long id, UserDto userDto) {
-        User user = userExists(id);
-        if (userDto.getName() != null) {
-            user.setName(userDto.getName());
+        return userMapper.toUserDto(applyPatch(id, userDto).after());
+    }
+
+    @Override
+    public BatchResult<UserDto> createUsers(List<UserDto> userDtos, boolean atomic) {
+        List<String> errors = new ArrayList<>(userDtos.size());
+        Map<String, Integer> emails = new HashMap<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            String error = batchValidator.validate(userDtos.get(i), Create.class);
+            if (error == null && emails.putIfAbsent(normalizeEmail(userDtos.get(i).getEmail()), i) != null) {
+                error = DUPLICATE_EMAIL;
+            }
+            errors.add(error);
         }
-        if (userDto.getEmail() != null) {
-            user.setEmail(userDto.getEmail());
+        if (atomic && emails.size() < userDtos.size()) {
+            return BatchResult.rejected(errors);
+        }
+
+        List<User> users = new ArrayList<>(emails.size());
+        for (int i = 0; i < userDtos.size(); i++) {
+            if (errors.get(i) == null) {
+                users.add(userMapper.toUser(userDtos.get(i)));
+            }
+        }
+        List<UserDto> results = new ArrayList<>(Collections.nCopies(userDtos.size(), null));
+        try {
+            Iterator<User> created = userRepository.createAll(users).iterator();
+            for (int i = 0; i < userDtos.size(); i++) {
+                if (errors.get(i) == null) {
+                    results.set(i, userMapper.toUserDto(created.next()));
+                }
+            }
+        } catch (NonExistentEmailException e) {
+            if (atomic) {
+                Integer taken = e.getEmail() == null ? null : emails.get(normalizeEmail(e.getEmail()));
+                for (int i = 0; i < userDtos.size(); i++) {
+                    if (taken == null || taken == i) {
+                        errors.set(i, e.getMessage());
+                    }
+                }
+                return BatchResult.rejected(errors);
+            }
+            createOneByOne(userDtos, errors, results);
+        }
+        return BatchResult.applied(errors, results, BatchResult.Status.CREATED);
+    }
+
+    @Override
+    public BatchResult<UserDto> updateUsers(List<UserDto> userDtos, boolean atomic) {
+        List<String> errors = new ArrayList<>(userDtos.size());
+        List<User> previous = new ArrayList<>(userDtos.size());
+        Set<String> emails = new HashSet<>();
+        for (UserDto userDto : userDtos) {
+            User current = userDto == null || userDto.getId() == null
+                    ? null
+                    : userRepository.findById(userDto.getId()).orElse(null);
+            String error = checkPatch(userDto, current);
+            if (error == null && userDto.getEmail() != null && !emails.add(normalizeEmail(userDto.getEmail()))) {
+                error = DUPLICATE_EMAIL;
+            }
+            errors.add(error);
+            previous.add(current);
+        }
+        if (atomic && errors.stream().anyMatch(Objects::nonNull)) {
+            return BatchResult.rejected(errors);
         }
 
-        return userMapper.toUserDto(userRepository.update(user));
+        List<UserDto> results = new ArrayList<>(Collections.nCopies(userDtos.size(), null));
+        List<Change> changes = new ArrayList<>(userDtos.size());
+        for (int i = 0; i < userDtos.size(); i++) {
+            if (errors.get(i) != null) {
+                continue;
+            }
+            try {
+                Change change = applyPatch(previous.get(i).getId(), userDtos.get(i));
+                changes.add(change);
+                results.set(i, userMapper.toUserDto(change.after()));
+            } catch (UserNotFoundException | NonExistentEmailException | VersionConflictException e) {
+                errors.set(i, e.getMessage());
+                if (atomic) {
+                    revert(changes);
+                    return BatchResult.rejected(errors);
+                }
+            }
+        }
+        return BatchResult.applied(errors, results, BatchResult.Status.UPDATED);
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         userExists(id);
+        bookingRepository.deleteAllByUserId(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
+        itemRequestRepository.deleteAllByRequestorId(id);
         userRepository.delete(id);
     }
 
     @Override
-    public Collection<UserDto> findAllUsers() {
-        return userRepository.findAllUsers().stream()
+    public Collection<UserDto> findAllUsers(long from, int size) {
+        return userRepository.findAllUsers(from, size).stream()
                 .map(userMapper::toUserDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Versioned<JsonBody> findAllUsersVersioned(long from, int size) {
+        return Versioned.of(() -> userJsonWriter.list(userRepository.findAllUsers(from, size)),
+                userRepository.collectionVersion());
+    }
+
+    @Override
+    public void exportAllUsers(Consumer<UserDto> action) {
+        userRepository.forEachUser(user -> action.accept(userMapper.toUserDto(user)));
+    }
+
     @Override
     public UserDto findById(Long id) {
         return userMapper.toUserDto(userExists(id));
     }
 
+    @Override
+    public Versioned<UserDto> findVersionedById(Long id) {
+        User user = userExists(id);
+        return Versioned.of(() -> userMapper.toUserDto(user), user.getVersion());
+    }
+
     @Override
     public User userExists(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException(id));
     }
+
+    @Override
+    public long collectionVersion() {
+        return userRepository.collectionVersion();
+    }
+
+    /**
+     * Patches the user as it is now, reading it again whenever a concurrent update wins.
+     */
+    private Change applyPatch(Long id, UserDto userDto) {
+        Change change = OptimisticRetry.run(() -> {
+            User current = userExists(id);
+            return new Change(current, userRepository.update(patch(current, userDto)));
+        }, () -> userRepository.evictCached(id));
+        eventPublisher.publishEvent(new UserUpdatedEvent(id));
+        return change;
+    }
+
+    private static User patch(User current, UserDto userDto) {
+        User user = new User(current.getId(), current.getName(), current.getEmail(), current.getVersion());
+        if (userDto.getName() != null) {
+            user.setName(userDto.getName());
+        }
+        if (userDto.getEmail() != null) {
+            user.setEmail(userDto.getEmail());
+        }
+        return user;
+    }
+
+    private String checkPatch(UserDto userDto, User current) {
+        String error = batchValidator.validate(userDto, Update.class);
+        if (error != null) {
+            return error;
+        }
+        if (userDto.getId() == null) {
+            return "id: must not be null";
+        }
+        if (current == null) {
+            return new UserNotFoundException(userDto.getId()).getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * Creates valid users one at a time after a block create hit an e-mail taken concurrently.
+     */
+    private void createOneByOne(List<UserDto> userDtos, List<String> errors, List<UserDto> results) {
+        for (int i = 0; i < userDtos.size(); i++) {
+            if (errors.get(i) != null) {
+                continue;
+            }
+            try {
+                results.set(i, create(userDtos.get(i)));
+            } catch (NonExistentEmailException e) {
+                errors.set(i, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Restores the users patched so far by an atomic batch that failed half way. Each restore is checked against
+     * the version the batch wrote, so a user changed by anyone else since keeps that change.
+     */
+    private void revert(List<Change> changes) {
+        for (Change change : changes) {
+            User before = change.before();
+            try {
+                userRepository.update(new User(before.getId(), before.getName(), before.getEmail(),
+                        change.after().getVersion()));
+                eventPublisher.publishEvent(new UserUpdatedEvent(before.getId()));
+            } catch (UserNotFoundException | NonExistentEmailException | VersionConflictException ignore) {
+                // deleted, changed again or e-mail taken concurrently, nothing to restore
+            }
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A user as a patch found it and as the patch stored it.
+     */
+    private record Change(User before, User after) {
+    }
 }
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.config.MetricNames;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports how long after JVM start the first request was served, i.e. the startup time as seen by clients,
+ * including beans that are only created on first use.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstRequestFilter extends OncePerRequestFilter implements MeterBinder {
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+        if (firstRequestMillis.get() < 0
+                && firstRequestMillis.compareAndSet(-1, ManagementFactory.getRuntimeMXBean().getUptime())) {
+            log.info("Served the first request {} ms after JVM start", firstRequestMillis.get());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder(MetricNames.FIRST_REQUEST_TIME, firstRequestMillis, TimeUnit.MILLISECONDS,
+                        millis -> millis.get() < 0 ? Double.NaN : millis.get())
+                .description("Time from JVM start to the end of the first served request")
+                .register(registry);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * A response body that writes itself to the JSON generator of the response, without intermediate DTOs
+ * and without Jackson introspecting it, see {@link JsonBodyHttpMessageConverter}.
+ */
+@FunctionalInterface
+public interface JsonBody {
+    void writeTo(JsonGenerator generator) throws IOException;
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link JsonBody} responses through a generator of the application's {@link ObjectMapper}, which takes
+ * its buffers from Jackson's buffer recycler, so a response allocates little beyond what the body itself does.
+ * A {@link SerializedJson} body is copied as is.
+ */
+public class JsonBodyHttpMessageConverter extends AbstractHttpMessageConverter<JsonBody> {
+    private final ObjectMapper objectMapper;
+
+    public JsonBodyHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected JsonBody readInternal(Class<? extends JsonBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("JSON bodies are written only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(JsonBody body, MediaType contentType) {
+        return body instanceof SerializedJson json ? Long.valueOf(json.bytes().length) : null;
+    }
+
+    @Override
+    protected void writeInternal(JsonBody body, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof SerializedJson json) {
+            StreamUtils.copy(json.bytes(), outputMessage.getBody());
+            return;
+        }
+        try (JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            body.writeTo(generator);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A body serialized to UTF-8 JSON once, which {@link JsonBodyHttpMessageConverter} copies to each response as is.
+ */
+public record SerializedJson(byte[] bytes) implements JsonBody {
+    public static SerializedJson of(JsonFactory factory, JsonBody body) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = factory.createGenerator(output, JsonEncoding.UTF8)) {
+            body.writeTo(generator);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new SerializedJson(output.toByteArray());
+    }
+
+    @Override
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeRawValue(new String(bytes, StandardCharsets.UTF_8));
+    }
+}
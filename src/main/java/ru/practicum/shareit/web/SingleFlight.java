@@ -0,0 +1,79 @@
+package ru.practicum.shareit.web;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: the first caller for a key computes the value on its own thread, callers
+ * arriving meanwhile wait for it instead of computing it again, and the value is reused until {@code ttl} has
+ * passed since it was computed. A failed computation is passed to its waiters and not kept.
+ * With a zero {@code ttl} every caller computes its own value.
+ * <p>
+ * Reuse counts are published as the {@code cache.gets} metric of cache {@code name}.
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+    private final String name;
+    private final AsyncCache<K, V> results;
+
+    public SingleFlight(String name, Duration ttl, long maximumSize) {
+        this.name = name;
+        this.results = ttl.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public V get(K key, Supplier<V> computation) {
+        if (results == null) {
+            return computation.get();
+        }
+
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> shared = results.get(key, (k, executor) -> own);
+        if (shared == own) {
+            try {
+                own.complete(computation.get());
+            } catch (RuntimeException | Error e) {
+                own.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return shared.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the value of {@code key}, so that the next caller computes it anew; one being computed is dropped too.
+     */
+    public void invalidate(K key) {
+        if (results != null) {
+            results.synchronous().invalidate(key);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (results != null) {
+            CaffeineCacheMetrics.monitor(registry, results, name);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.web;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * A representation with its strong entity tag, built from the versions of everything it shows.
+ * The body is only produced once the client's copy turned out to be stale; without a tag it is always produced.
+ * Versions must be read before the data the body is built from, so a tag is never newer than its body.
+ */
+public record Versioned<T>(String eTag, Supplier<T> body) {
+    public static <T> Versioned<T> of(Supplier<T> body, Long... versions) {
+        boolean known = Arrays.stream(versions).allMatch(version -> version != null && version >= 0);
+        if (!known) {
+            return new Versioned<>(null, body);
+        }
+        String tag = Arrays.stream(versions)
+                .map(Objects::toString)
+                .collect(Collectors.joining(".", "\"", "\""));
+        return new Versioned<>(tag, body);
+    }
+
+    /**
+     * Answers {@code 304 Not Modified} if {@code If-None-Match} holds the current tag, otherwise the tagged body.
+     */
+    public ResponseEntity<T> toResponse(WebRequest request) {
+        if (eTag == null) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (request.checkNotModified(eTag)) {
+            // the status and the ETag header are already set on the response
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(body.get());
+    }
+}
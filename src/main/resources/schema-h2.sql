@@ -0,0 +1,3 @@
+-- H2 cannot index an expression, so the lower-case e-mail is kept in a generated column
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_key VARCHAR(512) GENERATED ALWAYS AS (LOWER(email));
+ALTER TABLE users ADD CONSTRAINT IF NOT EXISTS uq_user_email UNIQUE (email_key);
@@ -0,0 +1,3 @@
+-- Replaces the case-sensitive constraint of earlier schemas, then a no-op since the index has its name
+ALTER TABLE users DROP CONSTRAINT IF EXISTS uq_user_email;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_user_email ON users (LOWER(email));
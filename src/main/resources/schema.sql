@@ -0,0 +1,45 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(512) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- E-mails are unique ignoring case; the index is created by schema-postgresql.sql or schema-h2.sql
+
+CREATE TABLE IF NOT EXISTS requests (
+    id BIGINT PRIMARY KEY,
+    description VARCHAR(2000) NOT NULL,
+    requester_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    created TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS items (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(2000) NOT NULL,
+    is_available BOOLEAN NOT NULL,
+    owner_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    request_id BIGINT REFERENCES requests (id) ON DELETE SET NULL,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id BIGINT PRIMARY KEY,
+    start_date TIMESTAMP NOT NULL,
+    end_date TIMESTAMP NOT NULL,
+    item_id BIGINT NOT NULL REFERENCES items (id) ON DELETE CASCADE,
+    booker_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    status VARCHAR(20) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id ON bookings (booker_id);
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BatchServiceTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        userIds.forEach(userService::delete);
+    }
+
+    @Test
+    void invalidElementsAreReportedWithoutAbortingTheBatch() {
+        BatchResult<UserDto> result = userService.createUsers(List.of(
+                new UserDto(null, "First", "batch-first@mail.ru"),
+                new UserDto(null, null, "batch-no-name@mail.ru"),
+                new UserDto(null, "Copy", "BATCH-FIRST@mail.ru"),
+                new UserDto(null, "Second", "batch-second@mail.ru")), false);
+        remember(result);
+
+        assertThat(result.isApplied()).isTrue();
+        assertThat(result.getResults()).extracting(BatchResult.Entry::getStatus).containsExactly(
+                BatchResult.Status.CREATED, BatchResult.Status.FAILED,
+                BatchResult.Status.FAILED, BatchResult.Status.CREATED);
+        assertThat(result.getResults().get(1).getError()).startsWith("name:");
+    }
+
+    @Test
+    void atomicBatchWithInvalidElementCreatesNothing() {
+        BatchResult<UserDto> result = userService.createUsers(List.of(
+                new UserDto(null, "First", "atomic-first@mail.ru"),
+                new UserDto(null, "Broken", "not an email")), true);
+
+        assertThat(result.isApplied()).isFalse();
+        assertThat(result.getResults()).extracting(BatchResult.Entry::getStatus)
+                .containsExactly(BatchResult.Status.SKIPPED, BatchResult.Status.FAILED);
+        BatchResult<UserDto> retry = userService.createUsers(List.of(
+                new UserDto(null, "First", "atomic-first@mail.ru")), true);
+        remember(retry);
+        assertThat(retry.isApplied()).isTrue();
+    }
+
+    @Test
+    void atomicItemUpdateTouchingForeignItemChangesNothing() {
+        UserDto owner = userService.create(new UserDto(null, "Owner", "batch-owner@mail.ru"));
+        UserDto stranger = userService.create(new UserDto(null, "Stranger", "batch-stranger@mail.ru"));
+        userIds.add(owner.getId());
+        userIds.add(stranger.getId());
+        BatchResult<ItemResponseDto> created = itemService.createItems(owner.getId(), List.of(
+                new ItemDto(null, "Drill", "Drill", true, null),
+                new ItemDto(null, "Saw", "Saw", true, null)), false);
+        Long drillId = created.getResults().get(0).getResult().id();
+        Long foreignId = itemService.createItem(stranger.getId(), new ItemDto(null, "Tent", "Tent", true, null)).id();
+
+        BatchResult<ItemResponseDto> result = itemService.updateItems(owner.getId(), List.of(
+                new ItemDto(drillId, "Renamed drill", null, null, null),
+                new ItemDto(foreignId, "Stolen tent", null, null, null)), true);
+
+        assertThat(result.isApplied()).isFalse();
+        assertThat(itemService.findById(drillId).name()).isEqualTo("Drill");
+        assertThat(itemService.findById(foreignId).name()).isEqualTo("Tent");
+    }
+
+    private void remember(BatchResult<UserDto> result) {
+        result.getResults().stream()
+                .filter(entry -> entry.getStatus() == BatchResult.Status.CREATED)
+                .forEach(entry -> userIds.add(entry.getResult().getId()));
+    }
+}
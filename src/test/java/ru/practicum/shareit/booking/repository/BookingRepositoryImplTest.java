@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.exception.BookingValidationException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Status;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingRepositoryImplTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private BookingRepositoryImpl bookingRepository;
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = new BookingRepositoryImpl();
+        User owner = new User(1L, "Owner", "owner@mail.ru");
+        booker = new User(2L, "Booker", "booker@mail.ru");
+        item = Item.builder().id(1L).name("Drill").description("Drill").available(true).owner(owner).build();
+    }
+
+    @Test
+    void overlappingBookingIsRejectedWhileAdjacentOneIsAccepted() {
+        bookingRepository.create(booking(NOW, NOW.plusDays(2)));
+
+        assertThatThrownBy(() -> bookingRepository.create(booking(NOW.plusDays(1), NOW.plusDays(3))))
+                .isInstanceOf(BookingOverlapException.class);
+        assertThatThrownBy(() -> bookingRepository.create(booking(NOW.minusDays(1), NOW.plusHours(1))))
+                .isInstanceOf(BookingOverlapException.class);
+        bookingRepository.create(booking(NOW.plusDays(2), NOW.plusDays(3)));
+        bookingRepository.create(booking(NOW.minusDays(1), NOW));
+
+        assertThat(bookingRepository.isFree(item.getId(), NOW.plusDays(3), NOW.plusDays(4))).isTrue();
+        assertThat(bookingRepository.isFree(item.getId(), NOW.plusHours(5), NOW.plusHours(6))).isFalse();
+    }
+
+    @Test
+    void rejectedOrCanceledBookingReleasesItsSlot() {
+        Booking rejected = bookingRepository.create(booking(NOW, NOW.plusDays(1)));
+        bookingRepository.changeStatus(rejected.getId(), Status.REJECTED);
+        Booking canceled = bookingRepository.create(booking(NOW, NOW.plusDays(1)));
+        bookingRepository.changeStatus(canceled.getId(), Status.APPROVED);
+        bookingRepository.changeStatus(canceled.getId(), Status.CANCELED);
+
+        assertThat(bookingRepository.isFree(item.getId(), NOW, NOW.plusDays(1))).isTrue();
+        assertThatThrownBy(() -> bookingRepository.changeStatus(rejected.getId(), Status.APPROVED))
+                .isInstanceOf(BookingValidationException.class);
+    }
+
+    @Test
+    void lastAndNextBookingsAreApprovedNeighboursOfNow() {
+        Booking waitingPast = bookingRepository.create(booking(NOW.minusDays(3), NOW.minusDays(2)));
+        Booking past = bookingRepository.changeStatus(waitingPast.getId(), Status.APPROVED);
+        bookingRepository.create(booking(NOW.minusDays(1), NOW.minusHours(1)));
+        Booking waitingFuture = bookingRepository.create(booking(NOW.plusDays(1), NOW.plusDays(2)));
+        Booking future = bookingRepository.changeStatus(waitingFuture.getId(), Status.APPROVED);
+
+        assertThat(bookingRepository.findLastBooking(item.getId(), NOW)).contains(past);
+        assertThat(bookingRepository.findNextBooking(item.getId(), NOW)).contains(future);
+    }
+
+    @Test
+    void statusChangeLeavesPreviouslyReadBookingUntouched() {
+        Booking waiting = bookingRepository.create(booking(NOW, NOW.plusDays(1)));
+
+        Booking approved = bookingRepository.changeStatus(waiting.getId(), Status.APPROVED);
+
+        assertThat(waiting.getStatus()).isEqualTo(Status.WAITING);
+        assertThat(approved.getStatus()).isEqualTo(Status.APPROVED);
+        assertThat(bookingRepository.findById(waiting.getId())).contains(approved);
+        assertThat(bookingRepository.findNextBooking(item.getId(), NOW.minusDays(1))).contains(approved);
+        assertThat(bookingRepository.isFree(item.getId(), NOW, NOW.plusDays(1))).isFalse();
+    }
+
+    @Test
+    void deletingItemOrUserRemovesTheirBookings() {
+        Item other = item.toBuilder().id(2L).build();
+        Booking first = bookingRepository.create(booking(NOW, NOW.plusDays(1)));
+        bookingRepository.changeStatus(first.getId(), Status.APPROVED);
+        Booking second = bookingRepository.create(booking(NOW, NOW.plusDays(1)).toBuilder().item(other).build());
+
+        bookingRepository.deleteAllByItemId(item.getId());
+
+        assertThat(bookingRepository.findById(first.getId())).isEmpty();
+        assertThat(bookingRepository.isFree(item.getId(), NOW, NOW.plusDays(1))).isTrue();
+        assertThat(bookingRepository.findNextBooking(item.getId(), NOW.minusDays(1))).isEmpty();
+        assertThat(bookingRepository.findAllByBookerId(booker.getId())).containsExactly(second);
+
+        bookingRepository.deleteAllByUserId(booker.getId());
+
+        assertThat(bookingRepository.findById(second.getId())).isEmpty();
+        assertThat(bookingRepository.findAllByOwnerId(item.getOwner().getId())).isEmpty();
+        assertThat(bookingRepository.isFree(other.getId(), NOW, NOW.plusDays(1))).isTrue();
+    }
+
+    @Test
+    void concurrentAttemptsToBookSameSlotLetOnlyOneThrough() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                attempts.add(executor.submit(() -> {
+                    try {
+                        bookingRepository.create(booking(NOW, NOW.plusDays(1)));
+                        return true;
+                    } catch (BookingOverlapException e) {
+                        return false;
+                    }
+                }));
+            }
+
+            int succeeded = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get(1, TimeUnit.MINUTES)) {
+                    succeeded++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(1);
+            assertThat(bookingRepository.findAllByBookerId(booker.getId())).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Booking booking(LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(Status.WAITING)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.exception.BookingValidationException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.Status;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "shareit.storage=jpa")
+class BookingRepositoryJpaImplTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+        booker = userRepository.create(new User(null, "Booker", "booker@mail.ru"));
+        item = itemRepository.create(Item.builder()
+                .name("Drill")
+                .description("Drill")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findAllUsers().forEach(user -> {
+            bookingRepository.deleteAllByUserId(user.getId());
+            itemRepository.deleteAllByOwnerId(user.getId());
+            userRepository.delete(user.getId());
+        });
+    }
+
+    @Test
+    void repositoryIsBackedByJpa() {
+        assertThat(bookingRepository).isInstanceOf(BookingRepositoryJpaImpl.class);
+    }
+
+    @Test
+    void overlappingActiveBookingIsRejected() {
+        Booking first = bookingRepository.create(booking(NOW, NOW.plusDays(2)));
+
+        assertThatThrownBy(() -> bookingRepository.create(booking(NOW.plusDays(1), NOW.plusDays(3))))
+                .isInstanceOf(BookingOverlapException.class);
+        bookingRepository.create(booking(NOW.plusDays(2), NOW.plusDays(3)));
+
+        bookingRepository.changeStatus(first.getId(), Status.REJECTED);
+        assertThat(bookingRepository.isFree(item.getId(), NOW, NOW.plusDays(1))).isTrue();
+        assertThatThrownBy(() -> bookingRepository.changeStatus(first.getId(), Status.APPROVED))
+                .isInstanceOf(BookingValidationException.class);
+    }
+
+    @Test
+    void lastAndNextBookingsAreApprovedNeighboursOfNow() {
+        Booking waitingPast = bookingRepository.create(booking(NOW.minusDays(3), NOW.minusDays(2)));
+        Booking past = bookingRepository.changeStatus(waitingPast.getId(), Status.APPROVED);
+        bookingRepository.create(booking(NOW.minusDays(1), NOW.minusHours(1)));
+        Booking waitingFuture = bookingRepository.create(booking(NOW.plusDays(1), NOW.plusDays(2)));
+        Booking future = bookingRepository.changeStatus(waitingFuture.getId(), Status.APPROVED);
+
+        assertThat(bookingRepository.findLastBooking(item.getId(), NOW)).map(Booking::getId).contains(past.getId());
+        assertThat(bookingRepository.findNextBooking(item.getId(), NOW)).map(Booking::getId).contains(future.getId());
+        assertThat(Hibernate.isInitialized(future.getItem().getOwner())).isTrue();
+    }
+
+    @Test
+    void bookingsAreFoundWithTheirRelationsAndDeletedWithTheUser() {
+        Booking booking = bookingRepository.create(booking(NOW, NOW.plusDays(1)));
+
+        Booking found = bookingRepository.findAllByOwnerId(item.getOwner().getId()).getFirst();
+        assertThat(found.getId()).isEqualTo(booking.getId());
+        assertThat(Hibernate.isInitialized(found.getBooker())).isTrue();
+        assertThat(found.getItem().getOwner().getEmail()).isEqualTo("owner@mail.ru");
+
+        bookingRepository.deleteAllByUserId(booker.getId());
+        assertThat(bookingRepository.findById(booking.getId())).isEmpty();
+        assertThat(bookingRepository.findAllByBookerId(booker.getId())).isEmpty();
+    }
+
+    private Booking booking(LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(Status.WAITING)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.config;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.NestedTestConfiguration;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "shareit.storage=jpa")
+class CacheConfigTest {
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void ownerUpdateEvictsOnlyTheOwnersItems() {
+        UserDto owner = userService.create(new UserDto(null, "Owner", "owner@mail.ru"));
+        UserDto other = userService.create(new UserDto(null, "Other", "other@mail.ru"));
+        try {
+            ItemResponseDto drill = itemService.createItem(owner.getId(),
+                    new ItemDto(null, "Drill", "Drill", true, null));
+            ItemResponseDto saw = itemService.createItem(other.getId(), new ItemDto(null, "Saw", "Saw", true, null));
+            itemService.findById(drill.id());
+            itemService.findById(saw.id());
+            Cache items = cacheManager.getCache(CacheConfig.ITEMS);
+
+            userService.update(owner.getId(), new UserDto(null, "Renamed", null));
+
+            assertThat(items.get(drill.id())).isNull();
+            assertThat(items.get(saw.id())).isNotNull();
+            assertThat(itemService.findById(drill.id()).owner().getName()).isEqualTo("Renamed");
+        } finally {
+            userService.delete(owner.getId());
+            userService.delete(other.getId());
+        }
+    }
+
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    @SpringBootTest
+    class MemoryStorage {
+        @Autowired
+        private ObjectProvider<CacheManager> memoryCacheManager;
+
+        @Test
+        void cachingIsOff() {
+            assertThat(memoryCacheManager.getIfAvailable()).isNull();
+        }
+    }
+}
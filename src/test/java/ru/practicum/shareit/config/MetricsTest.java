@@ -0,0 +1,37 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MetricsTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void serviceAndRepositoryCallsAreTimedAndStorageSizeIsPublished() {
+        UserDto user = userService.create(new UserDto(null, "Metrics", "metrics@mail.ru"));
+        try {
+            Timer serviceTimer = meterRegistry.find(MetricNames.SERVICE_TIMER).tag("method", "create").timer();
+            Timer repositoryTimer = meterRegistry.find(MetricNames.REPOSITORY_TIMER).tag("method", "create").timer();
+
+            assertThat(serviceTimer).isNotNull();
+            assertThat(serviceTimer.count()).isPositive();
+            assertThat(repositoryTimer).isNotNull();
+            assertThat(repositoryTimer.count()).isPositive();
+            assertThat(meterRegistry.get(MetricNames.STORAGE_SIZE).tag("storage", "users").gauge().value())
+                    .isGreaterThanOrEqualTo(1);
+        } finally {
+            userService.delete(user.getId());
+        }
+    }
+}
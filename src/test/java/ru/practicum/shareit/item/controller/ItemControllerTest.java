@@ -0,0 +1,67 @@
+package ru.practicum.shareit.item.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemControllerTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final int ITEMS = 150;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(new UserDto(null, "Owner", "paging-owner@mail.ru"));
+        for (int i = 0; i < ITEMS; i++) {
+            itemService.createItem(owner.getId(), new ItemDto(null, "Pager " + i, "Pager", true, null));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.delete(owner.getId());
+    }
+
+    @Test
+    void listsWithoutSizeAreNotCut() throws Exception {
+        mockMvc.perform(get("/items").header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(ITEMS)));
+        mockMvc.perform(get("/items/search").param("text", "pager"))
+                .andExpect(jsonPath("$", hasSize(ITEMS)));
+        mockMvc.perform(get("/items/search").param("text", "pager").param("size", "10"))
+                .andExpect(jsonPath("$", hasSize(10)));
+    }
+
+    @Test
+    void relevanceSearchRejectsFrom() throws Exception {
+        mockMvc.perform(get("/items/search").param("text", "pager").param("sort", "relevance").param("from", "5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items/search").param("text", "pager").param("sort", "relevance").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dto.UserJsonWriter;
+import ru.practicum.shareit.user.dto.UserMapperImpl;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemJsonWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ItemMapper itemMapper = new ItemMapperImpl();
+    private final UserJsonWriter userJsonWriter = new UserJsonWriter();
+    private final ItemJsonWriter itemJsonWriter = new ItemJsonWriter(userJsonWriter);
+
+    @Test
+    void writesTheSameJsonAsTheMappedDtos() throws IOException {
+        User owner = new User(1L, "Owner \"Quoted\"", "owner@mail.ru");
+        List<Item> items = List.of(
+                Item.builder().id(1L).name("Дрель").description("Аккумуляторная\nдрель").available(true)
+                        .owner(owner).request(ItemRequest.builder().id(7L).build()).build(),
+                Item.builder().id(2L).name("Saw").description(null).available(null).owner(owner).build(),
+                Item.builder().id(3L).name("Hammer").description("Heavy").available(false).build());
+
+        String expected = objectMapper.writeValueAsString(items.stream().map(itemMapper::toItemDto).toList());
+
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            itemJsonWriter.list(items).writeTo(generator);
+        }
+        assertThat(json.toString()).isEqualTo(expected);
+    }
+
+    @Test
+    void writesUsersAsUserDtos() throws IOException {
+        List<User> users = List.of(new User(1L, "Owner", "owner@mail.ru"), new User(2L, null, "b@mail.ru"));
+
+        String expected = objectMapper.writeValueAsString(users.stream().map(new UserMapperImpl()::toUserDto).toList());
+
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            userJsonWriter.list(users).writeTo(generator);
+        }
+        assertThat(json.toString()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,230 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.storage.VersionConflictException;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour every {@link ItemRepository} kept in memory shares, run against each storage layout.
+ */
+abstract class AbstractItemRepositoryTest {
+    protected ItemRepository itemRepository;
+    protected User owner;
+    protected User anotherOwner;
+    protected final Map<Long, User> owners = new HashMap<>();
+
+    /**
+     * Creates the storage under test; {@code owners} resolves the owners of storages that keep only their ids.
+     */
+    protected abstract ItemRepository createItemRepository(Function<Long, User> owners);
+
+    /**
+     * Applies the non-null fields of the patch to the stored item, the way the service does.
+     */
+    protected Item patch(Long itemId, ItemDto itemDto) {
+        return itemRepository.update(ItemPatch.apply(itemRepository.findById(itemId).orElseThrow(), itemDto));
+    }
+
+    @BeforeEach
+    void setUp() {
+        owner = new User(1L, "Owner", "owner@mail.ru");
+        anotherOwner = new User(2L, "Another", "another@mail.ru");
+        owners.put(owner.getId(), owner);
+        owners.put(anotherOwner.getId(), anotherOwner);
+        itemRepository = createItemRepository(owners::get);
+    }
+
+    @Test
+    void readsShowTheOwnerAsItIsNow() {
+        Item drill = itemRepository.create(item("Drill", "Hand drill", true));
+        User renamed = new User(owner.getId(), "Renamed", "renamed@mail.ru", 2L);
+        owners.put(owner.getId(), renamed);
+
+        assertThat(itemRepository.findById(drill.getId()).orElseThrow().getOwner()).isEqualTo(renamed);
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).extracting(Item::getOwner).containsExactly(renamed);
+        assertThat(itemRepository.searchItems("drill")).extracting(Item::getOwner).containsExactly(renamed);
+        assertThat(itemRepository.findAvailableItems()).extracting(Item::getOwner).containsExactly(renamed);
+    }
+
+    @Test
+    void searchItemsMatchesSubstringOfNameOrDescriptionIgnoringCase() {
+        Item drill = itemRepository.create(item("Дрель", "Аккумуляторная дрель", true));
+        Item screwdriver = itemRepository.create(item("Screwdriver", "Cordless DRILL driver", true));
+        itemRepository.create(item("Hammer", "Heavy hammer", true));
+
+        assertThat(itemRepository.searchItems("дРеЛь")).containsExactly(drill);
+        assertThat(itemRepository.searchItems("drill")).containsExactly(screwdriver);
+        assertThat(itemRepository.searchItems("dr")).containsExactlyInAnyOrder(screwdriver);
+        assertThat(itemRepository.searchItems("ammer")).hasSize(1);
+        assertThat(itemRepository.searchItems("saw")).isEmpty();
+        assertThat(itemRepository.searchItems(" ")).isEmpty();
+    }
+
+    @Test
+    void searchItemsDoesNotMatchAcrossNameAndDescription() {
+        itemRepository.create(item("Saw", "blade", true));
+
+        assertThat(itemRepository.searchItems("sawblade")).isEmpty();
+        assertThat(itemRepository.searchItems("w\nb")).isEmpty();
+    }
+
+    @Test
+    void searchItemsSkipsUnavailableItems() {
+        itemRepository.create(item("Drill", "Hand drill", false));
+
+        assertThat(itemRepository.searchItems("drill")).isEmpty();
+    }
+
+    @Test
+    void searchIndexFollowsUpdatesAndDeletes() {
+        Item item = itemRepository.create(item("Drill", "Hand drill", true));
+
+        Item saw = patch(item.getId(), new ItemDto(null, "Saw", "Hand saw", null, null));
+        assertThat(itemRepository.searchItems("drill")).isEmpty();
+        assertThat(itemRepository.searchItems("saw")).containsExactly(saw);
+
+        patch(item.getId(), new ItemDto(null, null, null, false, null));
+        assertThat(itemRepository.searchItems("saw")).isEmpty();
+
+        saw = patch(item.getId(), new ItemDto(null, null, null, true, null));
+        assertThat(itemRepository.searchItems("saw")).containsExactly(saw);
+
+        itemRepository.delete(item.getId());
+        assertThat(itemRepository.searchItems("saw")).isEmpty();
+        assertThat(itemRepository.searchItems("s")).isEqualTo(List.of());
+    }
+
+    @Test
+    void availabilityFollowsUpdatesWhileTheTextChanges() {
+        Item drill = itemRepository.create(item("Drill", "Hand drill", true));
+        Item saw = itemRepository.create(item("Saw", "Hand saw", false));
+
+        assertThat(itemRepository.findAvailableItems()).containsExactly(drill);
+
+        patch(drill.getId(), new ItemDto(null, null, null, false, null));
+        patch(drill.getId(), new ItemDto(null, "Hammer", "Heavy hammer", null, null));
+        saw = patch(saw.getId(), new ItemDto(null, null, null, true, null));
+        assertThat(itemRepository.findAvailableItems()).containsExactly(saw);
+        assertThat(itemRepository.searchItems("hammer")).isEmpty();
+        assertThat(itemRepository.searchItems("hand")).containsExactly(saw);
+
+        Item hammer = patch(drill.getId(), new ItemDto(null, null, null, true, null));
+        assertThat(itemRepository.findAvailableItems()).containsExactly(hammer, saw);
+        assertThat(itemRepository.searchItems("hammer")).containsExactly(hammer);
+        assertThat(itemRepository.searchItems("drill")).isEmpty();
+    }
+
+    @Test
+    void findAllByOwnerIdFollowsCreatesAndDeletes() {
+        Item first = itemRepository.create(item("Drill", "Hand drill", true));
+        Item second = itemRepository.create(item("Saw", "Hand saw", false));
+        Item foreign = item("Hammer", "Heavy hammer", true);
+        foreign.setOwner(anotherOwner);
+        itemRepository.create(foreign);
+
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).containsExactlyInAnyOrder(first, second);
+
+        itemRepository.delete(first.getId());
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).containsExactly(second);
+
+        itemRepository.deleteAllByOwnerId(owner.getId());
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).isEmpty();
+        assertThat(itemRepository.findById(second.getId())).isEmpty();
+        assertThat(itemRepository.findAllByOwnerId(anotherOwner.getId())).containsExactly(foreign);
+    }
+
+    @Test
+    void pagesStartFromCursorAndStopAtSize() {
+        Item first = itemRepository.create(item("Drill 1", "Drill", true));
+        Item second = itemRepository.create(item("Drill 2", "Drill", true));
+        Item third = itemRepository.create(item("Drill 3", "Drill", true));
+
+        assertThat(itemRepository.searchItems("drill", 0, 2)).containsExactly(first, second);
+        assertThat(itemRepository.searchItems("drill", second.getId() + 1, 2)).containsExactly(third);
+        assertThat(itemRepository.searchItems("dr", second.getId(), 10)).containsExactly(second, third);
+        assertThat(itemRepository.findAllByOwnerId(owner.getId(), first.getId() + 1, 1)).containsExactly(second);
+    }
+
+    @Test
+    void createAllAllocatesConsecutiveIdsAndIndexesEveryItem() {
+        Item before = itemRepository.create(item("Saw", "Saw", true));
+
+        List<Item> created = itemRepository.createAll(List.of(
+                item("Drill 1", "Drill", true), item("Drill 2", "Drill", false), item("Drill 3", "Drill", true)));
+
+        assertThat(created).extracting(Item::getId)
+                .containsExactly(before.getId() + 1, before.getId() + 2, before.getId() + 3);
+        assertThat(itemRepository.create(item("Hammer", "Hammer", true)).getId()).isEqualTo(before.getId() + 4);
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).hasSize(5);
+        assertThat(itemRepository.searchItems("drill")).containsExactly(created.get(0), created.get(2));
+    }
+
+    @Test
+    void updatesReplaceTheStoredItemInsteadOfChangingIt() {
+        Item item = itemRepository.create(item("Drill", "Hand drill", true));
+
+        Item updated = patch(item.getId(), new ItemDto(null, "Saw", null, null, null));
+
+        assertThat(item.getName()).isEqualTo("Drill");
+        assertThat(updated).isNotSameAs(item);
+        assertThat(updated.getVersion()).isGreaterThan(item.getVersion());
+        assertThat(itemRepository.findById(item.getId())).contains(updated);
+    }
+
+    @Test
+    void updateOfStaleCopyIsRejected() {
+        Item item = itemRepository.create(item("Drill", "Hand drill", true));
+        Item first = item.toBuilder().name("Saw").build();
+        Item second = item.toBuilder().name("Hammer").build();
+
+        itemRepository.update(first);
+
+        assertThatThrownBy(() -> itemRepository.update(second)).isInstanceOf(VersionConflictException.class);
+        assertThat(itemRepository.findById(item.getId())).get().extracting(Item::getName).isEqualTo("Saw");
+        assertThat(itemRepository.searchItems("hammer")).isEmpty();
+    }
+
+    @Test
+    void findAllByRequestIdsGroupsAnswersAndFollowsDeletes() {
+        ItemRequest request = ItemRequest.builder().id(10L).build();
+        ItemRequest unanswered = ItemRequest.builder().id(11L).build();
+        Item first = item("Drill", "Hand drill", true);
+        first.setRequest(request);
+        Item second = item("Saw", "Hand saw", false);
+        second.setRequest(request);
+        itemRepository.createAll(List.of(first, second));
+        itemRepository.create(item("Hammer", "Heavy hammer", true));
+
+        assertThat(itemRepository.findAllByRequestIds(List.of(request.getId(), unanswered.getId())))
+                .containsOnlyKeys(request.getId())
+                .containsEntry(request.getId(), List.of(first, second));
+
+        itemRepository.delete(first.getId());
+        assertThat(itemRepository.findAllByRequestIds(List.of(request.getId())))
+                .containsEntry(request.getId(), List.of(second));
+
+        itemRepository.delete(second.getId());
+        assertThat(itemRepository.findAllByRequestIds(List.of(request.getId()))).isEmpty();
+    }
+
+    protected Item item(String name, String description, boolean available) {
+        return Item.builder()
+                .name(name)
+                .description(description)
+                .available(available)
+                .owner(owner)
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactItemRepositoryTest extends AbstractItemRepositoryTest {
+    @Override
+    protected ItemRepository createItemRepository(Function<Long, User> owners) {
+        return new CompactItemRepository(owners);
+    }
+
+    @Test
+    void readsMaterializeTheStoredFieldsWithTheCurrentOwner() {
+        Item created = itemRepository.create(item("Drill", "Hand drill", true, owner));
+
+        Item found = itemRepository.findById(created.getId()).orElseThrow();
+
+        assertThat(found).isEqualTo(created).isNotSameAs(created);
+        assertThat(found.getOwner()).isSameAs(owner);
+        assertThat(itemRepository.findById(created.getId() + 1)).isEmpty();
+    }
+
+    @Test
+    void searchChecksCandidatesAgainstRowsThatMoved() {
+        Item first = itemRepository.create(item("Drill", "Hand drill", true, owner));
+        Item second = itemRepository.create(item("Saw", "Hand saw", true, owner));
+        Item third = itemRepository.create(item("Drill bits", "Bits for a drill", true, owner));
+
+        itemRepository.delete(first.getId());
+        Item sander = patch(second.getId(), new ItemDto(null, "Sander", "Hand sander", null, null));
+
+        assertThat(ids(itemRepository.searchItems("drill"))).containsExactly(third.getId());
+        assertThat(itemRepository.searchItems("hand sander")).containsExactly(sander);
+        assertThat(itemRepository.searchItems("hand saw")).isEmpty();
+    }
+
+    @Test
+    void deleteMovesTheLastRowWithoutLosingItems() {
+        Item first = itemRepository.create(item("Drill", "Hand drill", true, owner));
+        Item second = itemRepository.create(item("Saw", "Hand saw", false, anotherOwner));
+        Item third = itemRepository.create(item("Hammer", "Heavy hammer", true, owner));
+
+        itemRepository.delete(first.getId());
+
+        assertThat(itemRepository.findById(first.getId())).isEmpty();
+        assertThat(itemRepository.findById(third.getId())).contains(third);
+        assertThat(ids(itemRepository.findAllItems())).containsExactlyInAnyOrder(second.getId(), third.getId());
+        assertThat(ids(itemRepository.findAvailableItems())).containsExactly(third.getId());
+        assertThat(ids(itemRepository.findAllByOwnerId(owner.getId()))).containsExactly(third.getId());
+        assertThat(ids(itemRepository.searchItems("hammer"))).containsExactly(third.getId());
+    }
+
+    @Test
+    void storageGrowsPastItsInitialCapacity() {
+        for (int i = 0; i < 5000; i++) {
+            User itemOwner = i % 3 == 0 ? anotherOwner : owner;
+            itemRepository.create(item("Item " + i, "Description " + i, i % 2 == 1, itemOwner));
+        }
+        for (long id = 1; id <= 5000; id += 2) {
+            itemRepository.delete(id);
+        }
+
+        assertThat(itemRepository.findAllItems()).hasSize(2500);
+        assertThat(itemRepository.findAvailableItems()).hasSize(2500);
+        assertThat(itemRepository.findById(4000L).orElseThrow().getName()).isEqualTo("Item 3999");
+        assertThat(ids(itemRepository.findAllByOwnerId(owner.getId(), 100, 3))).containsExactly(102L, 104L, 108L);
+    }
+
+    @Test
+    void updatesMoveItemsBetweenIndexes() {
+        Item item = itemRepository.create(item("Drill", "Hand drill", true, owner));
+
+        Item saw = patch(item.getId(), new ItemDto(null, "Saw", null, false, null));
+
+        assertThat(saw.getName()).isEqualTo("Saw");
+        assertThat(saw.getDescription()).isEqualTo("Hand drill");
+        assertThat(itemRepository.findById(item.getId())).contains(saw);
+        assertThat(itemRepository.searchItems("drill")).isEmpty();
+        assertThat(itemRepository.findAvailableItems()).isEmpty();
+
+        Item moved = saw.toBuilder().owner(anotherOwner).build();
+        itemRepository.update(moved);
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).isEmpty();
+        assertThat(ids(itemRepository.findAllByOwnerId(anotherOwner.getId()))).containsExactly(item.getId());
+    }
+
+    @Test
+    void findAllByRequestIdsAndDeleteAllByOwnerIdFollowKeys() {
+        ItemRequest request = ItemRequest.builder().id(7L).build();
+        Item answer = item("Drill", "Hand drill", true, owner);
+        answer.setRequest(request);
+        answer = itemRepository.create(answer);
+        Item foreign = item("Saw", "Hand saw", true, anotherOwner);
+        foreign.setRequest(request);
+        foreign = itemRepository.create(foreign);
+
+        assertThat(ids(itemRepository.findAllByRequestIds(List.of(7L, 8L)).get(7L)))
+                .containsExactly(answer.getId(), foreign.getId());
+
+        itemRepository.deleteAllByOwnerId(owner.getId());
+
+        assertThat(itemRepository.findById(answer.getId())).isEmpty();
+        assertThat(ids(itemRepository.findAllByRequestIds(List.of(7L)).get(7L))).containsExactly(foreign.getId());
+        assertThat(itemRepository.findById(foreign.getId()).orElseThrow().getRequest().getId()).isEqualTo(7L);
+    }
+
+    private static List<Long> ids(Collection<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+
+    private static Item item(String name, String description, boolean available, User owner) {
+        return Item.builder()
+                .name(name)
+                .description(description)
+                .available(available)
+                .owner(owner)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemRelevanceIndexTest {
+    private final ItemRelevanceIndex index = new ItemRelevanceIndex();
+
+    @Test
+    void tokensAreCaseFoldedWithYoFoldedToYe() {
+        assertThat(ItemRelevanceIndex.tokens("Ёлочная ГИРЛЯНДА, 10 m!"))
+                .containsExactly("елочная", "гирлянда", "10", "m");
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionMatches() {
+        index.index(item(1L, "Hammer", "Works well with a drill", true));
+        index.index(item(2L, "Drill", "Cordless drill", true));
+        index.index(item(3L, "Saw", "Sharp", true));
+
+        assertThat(index.search("DRILL", 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void everyWordMustMatchExactlyByPrefixOrWithOneTypo() {
+        index.index(item(1L, "Дрель", "Аккумуляторная дрель", true));
+        index.index(item(2L, "Ёлка", "Искусственная", true));
+        index.index(item(3L, "Screwdriver", "Cordless driver", true));
+
+        assertThat(index.search("дрел", 10)).containsExactly(1L);
+        assertThat(index.search("елка", 10)).containsExactly(2L);
+        assertThat(index.search("cordles drievr", 10)).containsExactly(3L);
+        assertThat(index.search("cordless hammer", 10)).isEmpty();
+        assertThat(index.search("dr", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void onlyTheBestMatchesAreReturned() {
+        for (long id = 1; id <= 50; id++) {
+            index.index(item(id, "Tent " + id, "Camping tent", true));
+        }
+        index.index(item(51L, "Tent", "Tent for a tent lover", true));
+
+        assertThat(index.search("tent", 3)).containsExactly(51L, 1L, 2L);
+    }
+
+    @Test
+    void removedAndUnavailableItemsAreNotFound() {
+        index.index(item(1L, "Kayak", "Inflatable", true));
+        index.index(item(2L, "Kayak", "Broken", false));
+        index.remove(1L);
+
+        assertThat(index.search("kayak", 10)).isEmpty();
+        assertThat(index.search("kayk", 10)).isEmpty();
+        assertThat(index.termCount()).isZero();
+    }
+
+    @Test
+    void oneEditCoversInsertionDeletionSubstitutionAndSwap() {
+        assertThat(ItemRelevanceIndex.withinOneEdit("drill", "drill")).isTrue();
+        assertThat(ItemRelevanceIndex.withinOneEdit("drill", "drills")).isTrue();
+        assertThat(ItemRelevanceIndex.withinOneEdit("drill", "dril")).isTrue();
+        assertThat(ItemRelevanceIndex.withinOneEdit("drill", "grill")).isTrue();
+        assertThat(ItemRelevanceIndex.withinOneEdit("drill", "rdill")).isTrue();
+        assertThat(ItemRelevanceIndex.withinOneEdit("drill", "grills")).isFalse();
+        assertThat(ItemRelevanceIndex.withinOneEdit("drill", "dirll")).isTrue();
+        assertThat(ItemRelevanceIndex.withinOneEdit("drill", "lird")).isFalse();
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepositoryImpl;
+
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemRepositoryImplTest extends AbstractItemRepositoryTest {
+    @Override
+    protected ItemRepository createItemRepository(Function<Long, User> owners) {
+        ItemRepositoryImpl itemRepository = new ItemRepositoryImpl();
+        itemRepository.setOwnerLookup(owners);
+        return itemRepository;
+    }
+
+    @Test
+    void readsReturnTheStoredInstance() {
+        Item item = itemRepository.create(item("Drill", "Hand drill", true));
+
+        Item updated = patch(item.getId(), new ItemDto(null, "Saw", null, null, null));
+
+        assertThat(itemRepository.findById(item.getId())).containsSame(updated);
+    }
+
+    @Test
+    void userUpdateReachesTheItemsOfTheUser() {
+        UserRepositoryImpl userRepository = new UserRepositoryImpl();
+        User user = userRepository.create(new User(null, "Owner", "stored-owner@mail.ru"));
+        ItemRepositoryImpl items = new ItemRepositoryImpl(userRepository);
+        Item drill = item("Drill", "Hand drill", true);
+        drill.setOwner(user);
+        items.create(drill);
+
+        User updated = userRepository.update(new User(user.getId(), "Renamed", "renamed@mail.ru", user.getVersion()));
+
+        Item read = items.findById(drill.getId()).orElseThrow();
+        assertThat(read.getOwner().getName()).isEqualTo("Renamed");
+        assertThat(read.getOwner().getVersion()).isEqualTo(updated.getVersion());
+        assertThat(items.findAllByOwnerId(user.getId())).extracting(item -> item.getOwner().getEmail())
+                .containsExactly("renamed@mail.ru");
+    }
+
+    @Test
+    void readsDoNotWriteTheCurrentOwnerBack() {
+        UserRepositoryImpl userRepository = new UserRepositoryImpl();
+        User user = userRepository.create(new User(null, "Owner", "unchanged-owner@mail.ru"));
+        ItemRepositoryImpl items = new ItemRepositoryImpl(userRepository);
+        Item drill = item("Drill", "Hand drill", true);
+        drill.setOwner(user);
+        items.create(drill);
+
+        userRepository.update(new User(user.getId(), "Renamed", "unchanged-renamed@mail.ru", user.getVersion()));
+        items.findById(drill.getId());
+
+        items.setOwnerLookup(ownerId -> null);
+        assertThat(items.findById(drill.getId())).containsSame(drill);
+    }
+}
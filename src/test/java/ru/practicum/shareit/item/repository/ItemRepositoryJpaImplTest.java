@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item.repository;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.exception.NonExistentEmailException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "shareit.storage=jpa")
+class ItemRepositoryJpaImplTest {
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findAllUsers().forEach(user -> {
+            itemRepository.deleteAllByOwnerId(user.getId());
+            userRepository.delete(user.getId());
+        });
+    }
+
+    @Test
+    void repositoriesAreBackedByJpa() {
+        assertThat(itemRepository).isInstanceOf(ItemRepositoryJpaImpl.class);
+    }
+
+    @Test
+    void ownerIsFetchedTogetherWithItems() {
+        User owner = userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+        Item drill = itemRepository.create(item(owner, "Drill", "Cordless drill"));
+        itemRepository.create(item(owner, "Saw", "Hand saw"));
+
+        List<Item> items = itemRepository.findAllByOwnerId(owner.getId());
+        assertThat(items).hasSize(2);
+        assertThat(items).allMatch(item -> Hibernate.isInitialized(item.getOwner()));
+        assertThat(items.get(0).getOwner().getEmail()).isEqualTo("owner@mail.ru");
+
+        Item found = itemRepository.findById(drill.getId()).orElseThrow();
+        assertThat(Hibernate.isInitialized(found.getOwner())).isTrue();
+    }
+
+    @Test
+    void searchAndUpdateWorkAgainstDatabase() {
+        User owner = userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+        Item drill = itemRepository.create(item(owner, "Drill", "Cordless DRILL"));
+
+        assertThat(itemRepository.searchItems("dRiLl")).extracting(Item::getId).containsExactly(drill.getId());
+
+        itemRepository.update(drill.toBuilder().available(false).build());
+        assertThat(itemRepository.searchItems("drill")).isEmpty();
+    }
+
+    @Test
+    void duplicateEmailIsRejected() {
+        userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+
+        assertThatThrownBy(() -> userRepository.create(new User(null, "Other", "OWNER@mail.ru")))
+                .isInstanceOf(NonExistentEmailException.class);
+    }
+
+    @Test
+    void databaseRejectsEmailDifferingOnlyInCase() {
+        User owner = userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, ?, ?)",
+                owner.getId() + 1_000_000, "Other", "OWNER@MAIL.RU"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private Item item(User owner, String name, String description) {
+        return Item.builder()
+                .name(name)
+                .description(description)
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.storage.MappedSegments;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapItemRepositoryTest extends AbstractItemRepositoryTest {
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    private MappedSegments segments;
+
+    @Override
+    protected ItemRepository createItemRepository(Function<Long, User> owners) {
+        try {
+            segments = new MappedSegments(directory, SEGMENT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new OffHeapItemRepository(owners, segments);
+    }
+
+    @AfterEach
+    void tearDown() {
+        segments.close();
+    }
+
+    @Test
+    void itemReadBeforeAnUpdateKeepsItsFields() {
+        Item item = itemRepository.create(item("Дрель", "Аккумуляторная дрель", true));
+        Item read = itemRepository.findById(item.getId()).orElseThrow();
+
+        patch(item.getId(), new ItemDto(null, "Saw", "Hand saw", false, null));
+
+        assertThat(read.getName()).isEqualTo("Дрель");
+        assertThat(read.getDescription()).isEqualTo("Аккумуляторная дрель");
+        assertThat(read.getAvailable()).isTrue();
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getName()).isEqualTo("Saw");
+    }
+
+    @Test
+    void segmentsFreedByUpdatesAndDeletesAreReleased() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(itemRepository.create(item("Drill " + i, "Hand drill " + i, true)));
+        }
+        long created = segments.mappedBytes();
+
+        for (int round = 0; round < 10; round++) {
+            for (Item item : items) {
+                patch(item.getId(), new ItemDto(null, "Saw " + round, null, round % 2 == 0, null));
+            }
+        }
+
+        assertThat(segments.mappedBytes()).isLessThanOrEqualTo(2 * created + SEGMENT_SIZE);
+        assertThat(itemRepository.findAllItems()).extracting(Item::getName).containsOnly("Saw 9");
+
+        items.subList(0, 150).forEach(item -> itemRepository.delete(item.getId()));
+
+        assertThat(segments.mappedBytes()).isLessThan(created);
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).extracting(Item::getId)
+                .containsExactlyElementsOf(items.subList(150, 200).stream().map(Item::getId).toList());
+    }
+
+    @Test
+    void itemLargerThanASegmentGetsOneOfItsOwn() {
+        String description = "Heavy hammer ".repeat(SEGMENT_SIZE);
+        Item item = itemRepository.create(item("Hammer", description, true));
+
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getDescription()).isEqualTo(description);
+        assertThat(itemRepository.searchItems("hammer")).extracting(Item::getId).containsExactly(item.getId());
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.request.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemRequestRepositoryImplTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 8, 1, 12, 0);
+
+    private ItemRequestRepositoryImpl itemRequestRepository;
+    private User requestor;
+    private User another;
+
+    @BeforeEach
+    void setUp() {
+        itemRequestRepository = new ItemRequestRepositoryImpl();
+        requestor = new User(1L, "Requestor", "requestor@mail.ru");
+        another = new User(2L, "Another", "another@mail.ru");
+    }
+
+    @Test
+    void findAllByRequestorIdReturnsOwnRequestsNewestFirst() {
+        ItemRequest older = itemRequestRepository.create(request(requestor, NOW.minusDays(1)));
+        ItemRequest newer = itemRequestRepository.create(request(requestor, NOW));
+        ItemRequest sameTime = itemRequestRepository.create(request(requestor, NOW));
+        itemRequestRepository.create(request(another, NOW.plusDays(1)));
+
+        assertThat(itemRequestRepository.findAllByRequestorId(requestor.getId()))
+                .containsExactly(sameTime, newer, older);
+        assertThat(itemRequestRepository.findAllByRequestorId(3L)).isEmpty();
+    }
+
+    @Test
+    void findAllExceptRequestorPagesOverOtherUsersNewestFirst() {
+        ItemRequest oldest = itemRequestRepository.create(request(another, NOW.minusDays(2)));
+        itemRequestRepository.create(request(requestor, NOW.minusDays(1)));
+        ItemRequest middle = itemRequestRepository.create(request(another, NOW));
+        ItemRequest newest = itemRequestRepository.create(request(another, NOW.plusDays(1)));
+
+        assertThat(itemRequestRepository.findAllExceptRequestor(requestor.getId(), 0, 10))
+                .containsExactly(newest, middle, oldest);
+        assertThat(itemRequestRepository.findAllExceptRequestor(requestor.getId(), 1, 1)).containsExactly(middle);
+        assertThat(itemRequestRepository.findAllExceptRequestor(another.getId(), 0, 10)).hasSize(1);
+    }
+
+    @Test
+    void everyPageOfOtherUsersRequestsStartsWhereThePreviousEnded() {
+        List<ItemRequest> others = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            User user = i % 3 == 0 ? requestor : another;
+            ItemRequest request = itemRequestRepository.create(request(user, NOW.plusMinutes(i)));
+            if (user == another) {
+                others.addFirst(request);
+            }
+        }
+
+        for (int from = 0; from <= others.size(); from++) {
+            assertThat(itemRequestRepository.findAllExceptRequestor(requestor.getId(), from, 7))
+                    .containsExactlyElementsOf(others.subList(from, Math.min(from + 7, others.size())));
+        }
+    }
+
+    @Test
+    void deletedRequestorsRequestsDisappearFromEveryView() {
+        ItemRequest own = itemRequestRepository.create(request(requestor, NOW));
+        ItemRequest other = itemRequestRepository.create(request(another, NOW.plusDays(1)));
+
+        itemRequestRepository.deleteAllByRequestorId(requestor.getId());
+
+        assertThat(itemRequestRepository.findById(own.getId())).isEmpty();
+        assertThat(itemRequestRepository.findAllByRequestorId(requestor.getId())).isEmpty();
+        assertThat(itemRequestRepository.findAllExceptRequestor(another.getId(), 0, 10)).isEmpty();
+        assertThat(itemRequestRepository.findAllExceptRequestor(3L, 0, 10)).containsExactly(other);
+    }
+
+    private ItemRequest request(User user, LocalDateTime created) {
+        return ItemRequest.builder()
+                .description("Need a drill")
+                .requestor(user)
+                .created(created)
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+package ru.practicum.shareit.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepositoryImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepositoryImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DurabilityManagerTest {
+    @TempDir
+    Path directory;
+
+    private final List<DurabilityManager> managers = new ArrayList<>();
+    private UserRepositoryImpl userRepository;
+    private ItemRepositoryImpl itemRepository;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (DurabilityManager manager : managers) {
+            manager.close();
+        }
+    }
+
+    @Test
+    void cleanShutdownLeavesOnlySnapshotToRestoreFrom() throws IOException {
+        DurabilityManager manager = start();
+        User owner = userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+        Item drill = itemRepository.create(item(owner, "Drill"));
+        managers.remove(manager);
+        manager.close();
+
+        start();
+
+        assertThat(userRepository.findById(owner.getId())).contains(owner);
+        assertThat(itemRepository.findById(drill.getId()).orElseThrow().getOwner()).isEqualTo(owner);
+        assertThat(itemRepository.searchItems("drill")).extracting(Item::getId).containsExactly(drill.getId());
+    }
+
+    @Test
+    void indexImageWrittenOnShutdownReplacesIndexRebuild() throws IOException {
+        DurabilityManager manager = start();
+        User owner = userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+        Item drill = itemRepository.create(item(owner, "Drill"));
+        Item saw = itemRepository.create(item(owner, "Saw"));
+        managers.remove(manager);
+        manager.close();
+        assertThat(files(".img")).hasSize(1);
+
+        start();
+
+        assertThat(itemRepository.searchItems("dr")).extracting(Item::getId).containsExactly(drill.getId());
+        assertThat(itemRepository.searchItems("for rent")).extracting(Item::getId)
+                .containsExactly(drill.getId(), saw.getId());
+        itemRepository.update(itemRepository.findById(drill.getId()).orElseThrow().toBuilder()
+                .name("Hammer")
+                .description("Hammer for rent")
+                .build());
+        assertThat(itemRepository.searchItems("dr")).isEmpty();
+        assertThat(itemRepository.searchItems("hammer")).extracting(Item::getId).containsExactly(drill.getId());
+    }
+
+    @Test
+    void damagedIndexImageIsIgnored() throws IOException {
+        DurabilityManager manager = start();
+        User owner = userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+        Item drill = itemRepository.create(item(owner, "Drill"));
+        managers.remove(manager);
+        manager.close();
+        Path image = files(".img").getFirst();
+        byte[] content = Files.readAllBytes(image);
+        content[content.length - 1] ^= 1;
+        Files.write(image, content);
+
+        start();
+
+        assertThat(itemRepository.searchItems("drill")).extracting(Item::getId).containsExactly(drill.getId());
+    }
+
+    @Test
+    void crashRestoresSnapshotAndReplaysLogWrittenAfterIt() throws IOException {
+        DurabilityManager crashed = start();
+        User owner = userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+        Item drill = itemRepository.create(item(owner, "Drill"));
+        Item saw = itemRepository.create(item(owner, "Saw"));
+        crashed.snapshot();
+        itemRepository.update(drill.toBuilder().name("Hammer drill").available(false).build());
+        itemRepository.delete(saw.getId());
+        userRepository.update(new User(owner.getId(), "Renamed", "renamed@mail.ru"));
+        Item tent = itemRepository.create(item(owner, "Tent"));
+        halt(crashed);
+
+        start();
+
+        assertThat(userRepository.findById(owner.getId()).orElseThrow().getEmail()).isEqualTo("renamed@mail.ru");
+        assertThat(userRepository.validateEmail(null, "owner@mail.ru")).isFalse();
+        Item restored = itemRepository.findById(drill.getId()).orElseThrow();
+        assertThat(restored.getName()).isEqualTo("Hammer drill");
+        assertThat(restored.getAvailable()).isFalse();
+        assertThat(itemRepository.findById(saw.getId())).isEmpty();
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).extracting(Item::getId)
+                .containsExactlyInAnyOrder(drill.getId(), tent.getId());
+        assertThat(itemRepository.create(item(owner, "Kayak")).getId()).isGreaterThan(tent.getId());
+    }
+
+    @Test
+    void incompleteRecordAtEndOfLogIsDiscarded() throws IOException {
+        DurabilityManager crashed = start();
+        User owner = userRepository.create(new User(null, "Owner", "owner@mail.ru"));
+        halt(crashed);
+        Files.write(files(".log").getLast(), new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        start();
+
+        assertThat(userRepository.findById(owner.getId())).contains(owner);
+        assertThat(userRepository.create(new User(null, "Next", "next@mail.ru")).getId()).isGreaterThan(owner.getId());
+    }
+
+    @Test
+    void secondManagerCannotStartOnLockedDirectory() throws IOException {
+        start();
+        DurabilityManager second = new DurabilityManager(directory, List.of(new UserRepositoryImpl()));
+
+        assertThatThrownBy(() -> second.start(Duration.ofHours(1)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("in use");
+        second.close();
+    }
+
+    private DurabilityManager start() throws IOException {
+        userRepository = new UserRepositoryImpl();
+        itemRepository = new ItemRepositoryImpl();
+        itemRepository.setOwnerLookup(userRepository.directLookup());
+        DurabilityManager manager = new DurabilityManager(directory, List.of(itemRepository, userRepository));
+        manager.start(Duration.ofHours(1));
+        managers.add(manager);
+        return manager;
+    }
+
+    private void halt(DurabilityManager manager) throws IOException {
+        managers.remove(manager);
+        manager.halt();
+    }
+
+    private List<Path> files(String extension) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(extension))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Item item(User owner, String name) {
+        return Item.builder()
+                .name(name)
+                .description(name + " for rent")
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+}
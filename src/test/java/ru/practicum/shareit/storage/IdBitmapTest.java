@@ -0,0 +1,90 @@
+package ru.practicum.shareit.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdBitmapTest {
+    @Test
+    void behavesLikeTreeSetAcrossArrayAndBitmapChunks() {
+        Random random = new Random(42);
+        IdBitmap bitmap = new IdBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            long id = random.nextInt(200_000);
+            switch (random.nextInt(4)) {
+                case 0, 1 -> assertThat(bitmap.add(id)).isEqualTo(expected.add(id));
+                case 2 -> assertThat(bitmap.remove(id)).isEqualTo(expected.remove(id));
+                default -> {
+                    Long next = expected.ceiling(id);
+                    assertThat(bitmap.next(id)).isEqualTo(next == null ? -1 : next);
+                    assertThat(bitmap.contains(id)).isEqualTo(expected.contains(id));
+                }
+            }
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        assertThat(bitmap.toArray()).containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+
+        expected.removeIf(id -> id % 8 != 0 && bitmap.remove(id));
+        assertThat(bitmap.toArray()).containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    @Test
+    void rankAndSelectMatchPositionsInTheSortedSet() {
+        Random random = new Random(7);
+        IdBitmap bitmap = new IdBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            // dense in the first chunk, sparse in the others
+            long id = random.nextBoolean() ? random.nextInt(20_000) : random.nextInt(1_000_000);
+            bitmap.add(id);
+            expected.add(id);
+        }
+
+        List<Long> sorted = new ArrayList<>(expected);
+        for (int i = 0; i < 2_000; i++) {
+            int rank = random.nextInt(sorted.size());
+            long id = sorted.get(rank);
+            assertThat(bitmap.select(rank)).isEqualTo(id);
+            assertThat(bitmap.rank(id)).isEqualTo(rank);
+            assertThat(bitmap.rank(id + 1)).isEqualTo(rank + 1);
+        }
+        assertThat(bitmap.select(sorted.size())).isEqualTo(-1);
+        assertThat(bitmap.rank(0)).isZero();
+        assertThat(bitmap.rank(Long.MAX_VALUE)).isEqualTo(sorted.size());
+    }
+
+    @Test
+    void nextCommonStepsThroughTheIntersection() {
+        IdBitmap even = new IdBitmap();
+        IdBitmap tens = new IdBitmap();
+        IdBitmap sparse = new IdBitmap();
+        for (long id = 0; id < 300_000; id++) {
+            if (id % 2 == 0) {
+                even.add(id);
+            }
+            if (id % 10 == 0) {
+                tens.add(id);
+            }
+        }
+        sparse.add(5);
+        sparse.add(70_000);
+        sparse.add(250_000);
+        sparse.add(250_001);
+
+        List<Long> common = new ArrayList<>();
+        List<IdBitmap> sets = List.of(sparse, tens, even);
+        for (long id = IdBitmap.nextCommon(sets, 0); id >= 0; id = IdBitmap.nextCommon(sets, id + 1)) {
+            common.add(id);
+        }
+
+        assertThat(common).containsExactly(70_000L, 250_000L);
+        assertThat(IdBitmap.nextCommon(List.of(even, tens), 11)).isEqualTo(20);
+        assertThat(IdBitmap.nextCommon(List.of(even, new IdBitmap()), 0)).isEqualTo(-1);
+    }
+}
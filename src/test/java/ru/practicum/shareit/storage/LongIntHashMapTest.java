@@ -0,0 +1,35 @@
+package ru.practicum.shareit.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapTest {
+    @Test
+    void behavesLikeHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(42);
+        LongIntHashMap map = new LongIntHashMap(2);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(3000);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    int value = random.nextInt(1000);
+                    map.put(key, value);
+                    expected.put(key, value);
+                }
+                case 1 -> {
+                    Integer removed = expected.remove(key);
+                    assertThat(map.remove(key)).isEqualTo(removed == null ? LongIntHashMap.MISSING : removed);
+                }
+                default -> assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, LongIntHashMap.MISSING));
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+    }
+}
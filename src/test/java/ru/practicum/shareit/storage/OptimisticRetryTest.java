@@ -0,0 +1,63 @@
+package ru.practicum.shareit.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticRetryTest {
+    @Test
+    void retriesUntilAnAttemptDoesNotConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = OptimisticRetry.run(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new VersionConflictException("Item", 1L);
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void callsConflictHandlerAfterEveryLostAttempt() {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        OptimisticRetry.run(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new VersionConflictException("Item", 1L);
+            }
+            return "done";
+        }, conflicts::incrementAndGet);
+
+        assertThat(conflicts).hasValue(2);
+    }
+
+    @Test
+    void reportsConflictOnceAttemptsRunOut() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> OptimisticRetry.run(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+        })).isInstanceOf(VersionConflictException.class);
+        assertThat(attempts).hasValue(OptimisticRetry.MAX_ATTEMPTS);
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> OptimisticRetry.run(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(attempts).hasValue(1);
+    }
+}
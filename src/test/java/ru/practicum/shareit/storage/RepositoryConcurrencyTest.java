@@ -0,0 +1,188 @@
+package ru.practicum.shareit.storage;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepositoryImpl;
+import ru.practicum.shareit.user.exception.NonExistentEmailException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepositoryImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 500;
+    private static final int VIRTUAL_THREADS = 1_000;
+
+    private final User owner = new User(1L, "Owner", "owner@mail.ru");
+
+    @Test
+    void concurrentItemCreatesAreNotLost() throws Exception {
+        ItemRepositoryImpl itemRepository = new ItemRepositoryImpl();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                itemRepository.create(item("Item " + thread + "-" + i));
+            }
+        });
+
+        int expected = THREADS * OPERATIONS_PER_THREAD;
+        assertThat(itemRepository.findAllItems()).hasSize(expected);
+        assertThat(itemRepository.findAllItems().stream().map(Item::getId).distinct().count()).isEqualTo(expected);
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).hasSize(expected);
+    }
+
+    @Test
+    void concurrentUserCreatesAreNotLost() throws Exception {
+        UserRepositoryImpl userRepository = new UserRepositoryImpl();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                userRepository.create(new User(null, "User", "user" + thread + "-" + i + "@mail.ru"));
+            }
+        });
+
+        int expected = THREADS * OPERATIONS_PER_THREAD;
+        assertThat(userRepository.findAllUsers()).hasSize(expected);
+        assertThat(userRepository.findAllUsers().stream().map(User::getId).distinct().count()).isEqualTo(expected);
+    }
+
+    @Test
+    void concurrentSignupsWithSameEmailCreateOneUser() throws Exception {
+        UserRepositoryImpl userRepository = new UserRepositoryImpl();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                try {
+                    userRepository.create(new User(null, "User", "User" + i + "@mail.ru"));
+                } catch (NonExistentEmailException ignore) {
+                    // another thread registered this email first
+                }
+            }
+        });
+
+        assertThat(userRepository.findAllUsers()).hasSize(OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    void itemCreatesAndUpdatesOnVirtualThreadsAreNotLost() throws Exception {
+        ItemRepositoryImpl itemRepository = new ItemRepositoryImpl();
+        Item shared = itemRepository.create(item("Drill"));
+
+        runConcurrently(Executors.newVirtualThreadPerTaskExecutor(), VIRTUAL_THREADS, thread -> {
+            itemRepository.create(item("Item " + thread));
+            rename(itemRepository, shared.getId(), "Drill " + thread);
+        });
+
+        assertThat(itemRepository.findAllByOwnerId(owner.getId())).hasSize(VIRTUAL_THREADS + 1);
+        String lastName = itemRepository.findById(shared.getId()).orElseThrow().getName();
+        assertThat(itemRepository.searchItems(lastName)).extracting(Item::getId).containsExactly(shared.getId());
+    }
+
+    @Test
+    void searchesRunSafelyAlongsideUpdates() throws Exception {
+        ItemRepositoryImpl itemRepository = new ItemRepositoryImpl();
+        Item item = itemRepository.create(item("Drill"));
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    rename(itemRepository, item.getId(), "Drill " + thread + "-" + i);
+                } else {
+                    itemRepository.searchItems("drill");
+                    itemRepository.findAllByOwnerId(owner.getId());
+                }
+            }
+        });
+
+        String lastName = itemRepository.findById(item.getId()).orElseThrow().getName();
+        assertThat(itemRepository.searchItems(lastName)).extracting(Item::getId).containsExactly(item.getId());
+    }
+
+    @Test
+    void versionChecksLoseNoReadModifyWriteUpdates() throws Exception {
+        ItemRepositoryImpl itemRepository = new ItemRepositoryImpl();
+        Item counter = itemRepository.create(item("0"));
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                boolean updated = false;
+                while (!updated) {
+                    Item current = itemRepository.findById(counter.getId()).orElseThrow();
+                    int count = Integer.parseInt(current.getName());
+                    try {
+                        itemRepository.update(current.toBuilder().name(String.valueOf(count + 1)).build());
+                        updated = true;
+                    } catch (VersionConflictException ignore) {
+                        // another thread got in between, read again
+                    }
+                }
+            }
+        });
+
+        assertThat(itemRepository.findById(counter.getId()).orElseThrow().getName())
+                .isEqualTo(String.valueOf(THREADS * OPERATIONS_PER_THREAD));
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        runConcurrently(Executors.newFixedThreadPool(THREADS), THREADS, task);
+    }
+
+    private void runConcurrently(ExecutorService executor, int threads, ThreadTask task) throws Exception {
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadNumber);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Renames the item as it is now, reading it again whenever a concurrent update wins.
+     */
+    private static void rename(ItemRepositoryImpl itemRepository, Long itemId, String name) {
+        while (true) {
+            Item current = itemRepository.findById(itemId).orElseThrow();
+            try {
+                itemRepository.update(current.toBuilder().name(name).build());
+                return;
+            } catch (VersionConflictException ignore) {
+                // another thread got in between, read again
+            }
+        }
+    }
+
+    private Item item(String name) {
+        return Item.builder()
+                .name(name)
+                .description("Description of " + name)
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
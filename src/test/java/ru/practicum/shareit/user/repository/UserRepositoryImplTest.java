@@ -0,0 +1,69 @@
+package ru.practicum.shareit.user.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.user.exception.NonExistentEmailException;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserRepositoryImplTest {
+    private UserRepositoryImpl userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new UserRepositoryImpl();
+    }
+
+    @Test
+    void createRejectsEmailThatDiffersOnlyInCase() {
+        userRepository.create(new User(null, "First", "user@mail.ru"));
+
+        assertThatThrownBy(() -> userRepository.create(new User(null, "Second", "USER@Mail.ru")))
+                .isInstanceOf(NonExistentEmailException.class);
+        assertThat(userRepository.findAllUsers()).hasSize(1);
+    }
+
+    @Test
+    void updateMovesEmailInIndex() {
+        User user = userRepository.create(new User(null, "First", "first@mail.ru"));
+        User other = userRepository.create(new User(null, "Second", "second@mail.ru"));
+
+        userRepository.update(new User(user.getId(), user.getName(), "renamed@mail.ru"));
+
+        assertThat(userRepository.validateEmail(other.getId(), "first@mail.ru")).isFalse();
+        assertThat(userRepository.validateEmail(other.getId(), "RENAMED@mail.ru")).isTrue();
+        assertThat(userRepository.validateEmail(user.getId(), "renamed@mail.ru")).isFalse();
+        assertThatThrownBy(() -> userRepository.update(new User(other.getId(), "Second", "renamed@mail.ru")))
+                .isInstanceOf(NonExistentEmailException.class);
+        assertThat(userRepository.findById(other.getId()).orElseThrow().getEmail()).isEqualTo("second@mail.ru");
+    }
+
+    @Test
+    void createAllStoresNothingIfAnyEmailIsTaken() {
+        userRepository.create(new User(null, "First", "first@mail.ru"));
+
+        assertThatThrownBy(() -> userRepository.createAll(List.of(
+                new User(null, "Second", "second@mail.ru"), new User(null, "Again", "FIRST@mail.ru"))))
+                .isInstanceOf(NonExistentEmailException.class);
+        assertThat(userRepository.findAllUsers()).hasSize(1);
+        assertThat(userRepository.validateEmail(null, "second@mail.ru")).isFalse();
+
+        List<User> created = userRepository.createAll(List.of(
+                new User(null, "Second", "second@mail.ru"), new User(null, "Third", "third@mail.ru")));
+        assertThat(created.get(1).getId()).isEqualTo(created.get(0).getId() + 1);
+        assertThat(userRepository.findAllUsers()).hasSize(3);
+    }
+
+    @Test
+    void deleteReleasesEmail() {
+        User user = userRepository.create(new User(null, "First", "first@mail.ru"));
+
+        userRepository.delete(user.getId());
+
+        assertThat(userRepository.create(new User(null, "Again", "first@mail.ru")).getId()).isNotNull();
+    }
+}
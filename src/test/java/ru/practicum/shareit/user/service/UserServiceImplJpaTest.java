@@ -0,0 +1,7 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "shareit.storage=jpa")
+class UserServiceImplJpaTest extends UserServiceImplTest {
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the in-memory storage; {@link UserServiceImplJpaTest} runs the same tests against the database.
+ */
+@SpringBootTest
+class UserServiceImplTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final List<Long> users = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        users.forEach(userService::delete);
+    }
+
+    @Test
+    void deletingRequestorUnlinksOtherUsersItemsFromTheRequests() {
+        UserDto requestor = userService.create(new UserDto(null, "Requestor", "requestor@mail.ru"));
+        UserDto owner = userService.create(new UserDto(null, "Owner", "request-owner@mail.ru"));
+        users.add(owner.getId());
+        ItemRequestResponseDto request = itemRequestService.create(requestor.getId(),
+                new ItemRequestDto(null, "Need a drill"));
+        ItemResponseDto drill = itemService.createItem(owner.getId(),
+                new ItemDto(null, "Drill", "Cordless drill", true, request.id()));
+        assertThat(itemService.findById(drill.id()).requestId()).isEqualTo(request.id());
+
+        userService.delete(requestor.getId());
+
+        assertThat(itemService.findById(drill.id()).requestId()).isNull();
+        assertThat(itemRepository.findById(drill.id()).orElseThrow().getRequest()).isNull();
+        assertThat(itemRepository.findAllByRequestIds(List.of(request.id()))).isEmpty();
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+
+    private UserDto owner;
+    private ItemResponseDto item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(new UserDto(null, "Owner", "etag-owner@mail.ru"));
+        item = itemService.createItem(owner.getId(), new ItemDto(null, "Drill", "Cordless drill", true, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.delete(owner.getId());
+    }
+
+    @Test
+    void unchangedItemIsNotSentAgain() throws Exception {
+        String eTag = eTagOf("/items/" + item.id());
+
+        mockMvc.perform(get("/items/" + item.id()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updatedItemGetsNewTag() throws Exception {
+        String eTag = eTagOf("/items/" + item.id());
+
+        mockMvc.perform(patch("/items/" + item.id())
+                        .header(USER_ID_HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Hammer drill\"}"))
+                .andExpect(status().isOk());
+
+        String updated = mockMvc.perform(get("/items/" + item.id()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Hammer drill")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(updated).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void userAndUserListAreTaggedAndChangeTogether() throws Exception {
+        String userTag = eTagOf("/users/" + owner.getId());
+        String listTag = eTagOf("/users");
+        mockMvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isNotModified());
+
+        userService.update(owner.getId(), new UserDto(null, "Renamed", null));
+
+        assertThat(eTagOf("/users/" + owner.getId())).isNotEqualTo(userTag);
+        assertThat(eTagOf("/users")).isNotEqualTo(listTag);
+    }
+
+    @Test
+    void ownerItemListAndSearchAreTagged() throws Exception {
+        String listTag = mockMvc.perform(get("/items").header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String searchTag = eTagOf("/items/search?text=drill");
+
+        mockMvc.perform(get("/items")
+                        .header(USER_ID_HEADER, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isNotModified());
+        itemService.deleteItem(item.id());
+        mockMvc.perform(get("/items/search?text=drill").header(HttpHeaders.IF_NONE_MATCH, searchTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ownerUpdateChangesItemListAndSearchTags() throws Exception {
+        String listTag = mockMvc.perform(get("/items").header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String searchTag = eTagOf("/items/search?text=drill");
+
+        userService.update(owner.getId(), new UserDto(null, "Renamed", null));
+
+        mockMvc.perform(get("/items")
+                        .header(USER_ID_HEADER, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/search?text=drill").header(HttpHeaders.IF_NONE_MATCH, searchTag))
+                .andExpect(status().isOk());
+    }
+
+    private String eTagOf(String uri) throws Exception {
+        String eTag = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"");
+        return eTag;
+    }
+}
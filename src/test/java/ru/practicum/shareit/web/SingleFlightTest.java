@@ -0,0 +1,83 @@
+package ru.practicum.shareit.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", Duration.ofMinutes(1), 100);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = executor.submit(() -> singleFlight.get(1L, () -> {
+                started.countDown();
+                await(release);
+                return compute();
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<String>> waiting = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                waiting.add(executor.submit(() -> singleFlight.get(1L, this::compute)));
+            }
+            release.countDown();
+
+            assertThat(first.get()).isEqualTo("item 1");
+            for (Future<String> result : waiting) {
+                assertThat(result.get()).isEqualTo("item 1");
+            }
+        }
+        assertThat(computations).hasValue(1);
+    }
+
+    @Test
+    void failuresAreNotKeptAndInvalidationRecomputes() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", Duration.ofMinutes(1), 100);
+
+        assertThatThrownBy(() -> singleFlight.get(1L, () -> {
+            throw new IllegalStateException("not found");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.get(1L, this::compute)).isEqualTo("item 1");
+        assertThat(singleFlight.get(1L, this::compute)).isEqualTo("item 1");
+
+        singleFlight.invalidate(1L);
+        assertThat(singleFlight.get(1L, this::compute)).isEqualTo("item 2");
+    }
+
+    @Test
+    void zeroTtlComputesEveryTime() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", Duration.ZERO, 100);
+
+        singleFlight.get(1L, this::compute);
+        singleFlight.get(1L, this::compute);
+
+        assertThat(computations).hasValue(2);
+    }
+
+    private String compute() {
+        return "item " + computations.incrementAndGet();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}